@@ -0,0 +1,69 @@
+/**
+ * 一次已结束的停车，由归档读取器读出，或由{@link ParkingField#history}等查询返回。
+ * <p>
+ * 与{@link Record}不同，本类只保存基本类型的字段，不引用Car、Lot或Calendar对象，是不可变的。
+ */
+public class ArchivedSession {
+    private final long ordinal;
+    private final String plate;
+    private final int carWidth;
+    private final int lotNumber;
+    private final int lotWidth;
+    private final long timeIn;
+    private final long timeOut;
+    private final double fee;
+
+    /**
+     * @param ordinal   该记录在归档或停车场所有停车记录中的序号，从0开始。
+     * @param plate     车牌号。
+     * @param carWidth  车辆宽度。
+     * @param lotNumber 车位编号。
+     * @param lotWidth  车位宽度。
+     * @param timeIn    入场时间（毫秒）。
+     * @param timeOut   离场时间（毫秒）。
+     * @param fee       停车费用。
+     */
+    public ArchivedSession(long ordinal, String plate, int carWidth, int lotNumber, int lotWidth,
+                           long timeIn, long timeOut, double fee) {
+        this.ordinal = ordinal;
+        this.plate = plate;
+        this.carWidth = carWidth;
+        this.lotNumber = lotNumber;
+        this.lotWidth = lotWidth;
+        this.timeIn = timeIn;
+        this.timeOut = timeOut;
+        this.fee = fee;
+    }
+
+    public long getOrdinal() {
+        return ordinal;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    public int getCarWidth() {
+        return carWidth;
+    }
+
+    public int getLotNumber() {
+        return lotNumber;
+    }
+
+    public int getLotWidth() {
+        return lotWidth;
+    }
+
+    public long getTimeIn() {
+        return timeIn;
+    }
+
+    public long getTimeOut() {
+        return timeOut;
+    }
+
+    public double getFee() {
+        return fee;
+    }
+}
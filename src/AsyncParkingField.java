@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 停车场的异步前端。
+ * <p>
+ * 所有停车、驶离请求都被放入一个队列，由唯一的写线程（事件循环）按批取出并依次作用于底层停车场，
+ * 因此底层停车场只被一个线程访问，不需要加锁。调用方拿到的是一个{@link CompletableFuture}，
+ * 不会阻塞在停车场的操作上。写线程每次最多取出{@code batchSize}个请求，只是减少了队列上的交接次数，
+ * 每个请求仍单独作用于停车场，不会被合并成一次操作。
+ * <p>
+ * 写线程处理完一批请求后，把结束这批future的工作交给完成执行器，按提交顺序依次结束，
+ * 因此调用方注册的回调不会在写线程上运行，也不会拖慢之后的请求。
+ * <p>
+ * 使用完毕后应调用{@link #close()}，已提交的请求会在其返回前全部处理完毕并结束对应的future。
+ * 不应在这些future的回调中调用{@link #close()}：它会等待包括该回调在内的全部结束工作，从而永远不会返回。
+ */
+public class AsyncParkingField implements AutoCloseable {
+    // Rep
+    private final ParkingField field; // 只由写线程访问
+    private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<>(); // 待处理的请求
+    private final int batchSize; // 每批最多处理的请求数
+    private final Executor completionExecutor; // 结束future的执行器
+    private final Thread writer; // 唯一的写线程
+    private CompletableFuture<Void> completions = CompletableFuture.completedFuture(null); // 最后一批的结束工作，只由写线程修改
+    private volatile boolean closed = false;
+
+    /**
+     * Abstraction Function (AF):
+     * AF(a) = 一个停车场a.field，加上按提交顺序排列的、尚未被处理的请求序列a.queue。
+     * <p>
+     * Representation Invariant (RI):
+     * - a.batchSize > 0
+     * - a.field只在a.writer线程中被访问；a.writer退出前，a.completions也只在a.writer线程中被访问。
+     * - 每批请求的结束工作排在上一批之后，因此future按提交顺序结束。
+     * - a.closed为true后，a.queue中不再加入新的请求。
+     */
+
+    /**
+     * 为停车场创建一个异步前端，并启动写线程。future在{@link ForkJoinPool#commonPool()}中结束。
+     *
+     * @param field     底层停车场，创建后不应再被其他线程直接访问。
+     * @param batchSize 写线程每批最多处理的请求数，必须是正整数。
+     * @throws NullPointerException     如果`field`为null。
+     * @throws IllegalArgumentException 如果`batchSize`不是正整数。
+     */
+    public AsyncParkingField(ParkingField field, int batchSize) {
+        this(field, batchSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 为停车场创建一个异步前端，并启动写线程。
+     *
+     * @param field              底层停车场，创建后不应再被其他线程直接访问。
+     * @param batchSize          写线程每批最多处理的请求数，必须是正整数。
+     * @param completionExecutor 结束future（并运行其回调）的执行器；若它拒绝任务，则改由写线程结束future。
+     * @throws NullPointerException     如果`field`或`completionExecutor`为null。
+     * @throws IllegalArgumentException 如果`batchSize`不是正整数。
+     */
+    public AsyncParkingField(ParkingField field, int batchSize, Executor completionExecutor) {
+        if (field == null) {
+            throw new NullPointerException("The parking field cannot be null.");
+        }
+        if (completionExecutor == null) {
+            throw new NullPointerException("The completion executor cannot be null.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be a positive integer.");
+        }
+        this.field = field;
+        this.batchSize = batchSize;
+        this.completionExecutor = completionExecutor;
+        this.writer = new Thread(this::runLoop, "parking-field-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 异步地将车辆停放在指定车位上，语义同{@link ParkingField#parking(String, int, int)}。
+     *
+     * @return 停车完成后正常结束的future；若停车失败，则以相应异常结束。
+     * @throws IllegalStateException 如果前端已关闭。
+     */
+    public CompletableFuture<Void> parkAsync(String plate, int width, int num) {
+        return submit(f -> {
+            f.parking(plate, width, num);
+            return null;
+        });
+    }
+
+    /**
+     * 异步地为车辆自动分配车位，语义同{@link ParkingField#parking(String, int)}。
+     *
+     * @return 停车完成后正常结束的future；若停车失败，则以相应异常结束。
+     * @throws IllegalStateException 如果前端已关闭。
+     */
+    public CompletableFuture<Void> parkAsync(String plate, int width) {
+        return submit(f -> {
+            f.parking(plate, width);
+            return null;
+        });
+    }
+
+    /**
+     * 异步地为车辆分配离入口最近的车位，语义同{@link ParkingField#parkingNearest(String, int, int, int, int)}。
+     *
+     * @return 以分配到的车位编号结束的future；若停车失败，则以相应异常结束。
+     * @throws IllegalStateException 如果前端已关闭。
+     */
+    public CompletableFuture<Integer> parkNearestAsync(String plate, int width, int x, int y, int level) {
+        return submit(f -> f.parkingNearest(plate, width, x, y, level));
+    }
+
+    /**
+     * 异步地处理车辆驶离，语义同{@link ParkingField#depart(String)}。
+     *
+     * @return 以本次停车费用结束的future；若驶离失败，则以相应异常结束。
+     * @throws IllegalStateException 如果前端已关闭。
+     */
+    public CompletableFuture<Double> departAsync(String plate) {
+        return submit(f -> f.depart(plate));
+    }
+
+    /**
+     * 关闭异步前端：不再接受新请求，等待写线程处理完已提交的请求、且对应的future全部结束后返回。
+     * 等待期间若当前线程被中断，仍会等到写线程退出，返回前再恢复当前线程的中断状态。
+     * 不应在future的回调中调用本方法。
+     *
+     * @throws IllegalStateException 如果在写线程中调用（例如完成执行器直接在写线程上运行回调）。
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() == writer) {
+            throw new IllegalStateException("The async parking field cannot be closed from its writer thread.");
+        }
+        closed = true;
+        writer.interrupt();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // 写线程已退出，此后completions不再变化
+        completions.join();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Operation<T> operation) {
+        if (closed) {
+            throw new IllegalStateException("The async parking field is closed.");
+        }
+        Request<T> request = new Request<>(operation);
+        queue.add(request);
+        // 与close()竞争时，若请求未被写线程取走，则由提交方撤回
+        if (closed && queue.remove(request)) {
+            request.future.completeExceptionally(
+                    new IllegalStateException("The async parking field is closed."));
+        }
+        return request.future;
+    }
+
+    private void runLoop() {
+        List<Request<?>> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            applyAll(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        // 关闭前处理剩余的请求
+        queue.drainTo(batch);
+        applyAll(batch);
+    }
+
+    /**
+     * 在写线程中把一批请求依次作用于停车场，再把结束它们的future的工作排在上一批之后交给完成执行器。
+     * 调用后`batch`归结束工作所有，不应再被修改。
+     */
+    private void applyAll(List<Request<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Request<?> request : batch) {
+            request.apply(field);
+        }
+        completions = completions.thenRunAsync(() -> {
+            for (Request<?> request : batch) {
+                request.complete();
+            }
+        }, this::executeCompletion);
+    }
+
+    private void executeCompletion(Runnable task) {
+        try {
+            completionExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * 作用于停车场的一次操作。
+     */
+    private interface Operation<T> {
+        T apply(ParkingField field) throws Exception;
+    }
+
+    private static class Request<T> {
+        private final Operation<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result; // 由写线程写入，经thenRunAsync的先行发生关系对结束工作可见
+        private Throwable failure;
+
+        Request(Operation<T> operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * 在写线程中执行操作并保存结果，不结束future。
+         */
+        void apply(ParkingField field) {
+            try {
+                result = operation.apply(field);
+            } catch (Throwable e) {
+                // 包括Error（如-ea下checkRep的AssertionError），写线程不能因此退出，否则后续请求永远不会完成
+                failure = e;
+            }
+        }
+
+        /**
+         * 以保存的结果结束future，会运行调用方注册的回调。
+         */
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
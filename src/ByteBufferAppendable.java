@@ -0,0 +1,102 @@
+import java.nio.ByteBuffer;
+
+/**
+ * 把字符以UTF-8编码直接写入{@link ByteBuffer}的{@link Appendable}。
+ * <p>
+ * 本类不分配任何中间对象，可以通过{@link #reset(ByteBuffer)}切换目标缓冲区后反复使用，
+ * 适合在固定周期内把停车场状态渲染到同一块缓冲区中。
+ * 缓冲区空间不足时，写入会抛出{@link java.nio.BufferOverflowException}。
+ */
+public class ByteBufferAppendable implements Appendable {
+    // Rep
+    private ByteBuffer buffer; // 目标缓冲区
+    private char highSurrogate = 0; // 尚未配对的高位代理字符，0表示没有
+
+    /**
+     * Abstraction Function (AF):
+     * AF(a) = 一个以UTF-8编码写入a.buffer的字符流；若a.highSurrogate不为0，则它是已写入但尚未编码的最后一个字符。
+     * <p>
+     * Representation Invariant (RI):
+     * - a.buffer不为null。
+     * - a.highSurrogate为0或一个高位代理字符。
+     */
+
+    /**
+     * @param buffer 目标缓冲区，不能为null。
+     * @throws NullPointerException 如果`buffer`为null。
+     */
+    public ByteBufferAppendable(ByteBuffer buffer) {
+        reset(buffer);
+    }
+
+    /**
+     * 切换到新的目标缓冲区，并丢弃尚未配对的代理字符。
+     *
+     * @param buffer 目标缓冲区，不能为null。
+     * @return 本对象。
+     * @throws NullPointerException 如果`buffer`为null。
+     */
+    public ByteBufferAppendable reset(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("The buffer cannot be null.");
+        }
+        this.buffer = buffer;
+        this.highSurrogate = 0;
+        return this;
+    }
+
+    @Override
+    public ByteBufferAppendable append(CharSequence csq) {
+        return append(csq, 0, (csq == null) ? 4 : csq.length());
+    }
+
+    @Override
+    public ByteBufferAppendable append(CharSequence csq, int start, int end) {
+        if (csq == null) {
+            csq = "null";
+        }
+        for (int i = start; i < end; i++) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBufferAppendable append(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                putCodePoint(Character.toCodePoint(high, c));
+                return this;
+            }
+            buffer.put((byte) '?'); // 孤立的高位代理字符
+        }
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.put((byte) '?'); // 孤立的低位代理字符
+        } else {
+            putCodePoint(c);
+        }
+        return this;
+    }
+
+    private void putCodePoint(int cp) {
+        if (cp < 0x80) {
+            buffer.put((byte) cp);
+        } else if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | (cp >> 6)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            buffer.put((byte) (0xE0 | (cp >> 12)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+}
@@ -1,11 +1,41 @@
 public class Car {
 
-    private String plate;
-    private int width;
+    private final int id;
+    private final String plate;
+    private final int width;
+    private final int hash;
 
     public Car(String plate, int width) {
+        this(-1, plate, width);
+    }
+
+    /**
+     * 创建一辆已在{@link PlateDictionary}中驻留车牌的车辆。
+     *
+     * @param id    车牌在字典中的编号；未驻留的车辆为-1。
+     * @param plate 车牌号。
+     * @param width 车辆宽度。
+     */
+    public Car(int id, String plate, int width) {
+        this.id = id;
         this.plate = plate;
         this.width = width;
+        this.hash = computeHash(plate, width);
+    }
+
+    private static int computeHash(String plate, int width) {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((plate == null) ? 0 : plate.hashCode());
+        result = prime * result + width;
+        return result;
+    }
+
+    /**
+     * @return 车牌在{@link PlateDictionary}中的编号；未驻留的车辆返回-1。
+     */
+    public int getId() {
+        return id;
     }
 
     public int getWidth() {
@@ -18,11 +48,7 @@ public class Car {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((plate == null) ? 0 : plate.hashCode());
-        result = prime * result + width;
-        return result;
+        return hash;
     }
 
     @Override
@@ -34,14 +60,12 @@ public class Car {
         if (getClass() != obj.getClass())
             return false;
         Car other = (Car) obj;
-        if (plate == null) {
-            if (other.plate != null)
-                return false;
-        } else if (!plate.equals(other.plate))
+        if (hash != other.hash || width != other.width)
             return false;
-        if (width != other.width)
-            return false;
-        return true;
+        // 同一字典驻留的车牌是同一个String对象，引用比较即可命中
+        if (plate == other.plate)
+            return true;
+        return plate != null && plate.equals(other.plate);
     }
 
 }
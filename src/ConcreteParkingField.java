@@ -1,62 +1,129 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.*;
 
 public class ConcreteParkingField implements ParkingField{
     // Rep
     private final List<Lot> lots = new ArrayList<>(); // 一组车位
-    private final Map<Lot, Car> status = new HashMap<>(); // 占用情况
-    private final List<Record> records = new ArrayList<>(); // 停车记录
+    private final List<Record> records = new ArrayList<>(); // 停车记录，已结束的记录移入closedSessions后置为null
+    private final PlateDictionary plates = new PlateDictionary(); // 车牌字典
+    private int[] parkedLots = newPlateTable(16); // 车牌编号 → 所停车位在lots中的下标，未停放时为-1
+    private FreeLotIndex freeLots; // 车位的占用情况（堆外位图）及空闲车位的空间索引，以车位在lots中的下标表示车位
+    private IntBuffer occupants; // 车位下标 → 占用该车位的车牌编号，存放在堆外；空闲车位的值无意义
+    private FreeLotSampler sampler; // 按宽度均匀抽取freeLots中的空闲车位，只保存计数
+    private volatile ThreadLocal<SplittableRandom> randoms = newRandoms(new SplittableRandom()); // 每个线程独立的随机数生成器
+    private int[] sortedNumbers; // 按升序排列的车位编号
+    private int[] sortedLotIndex; // sortedNumbers[i]对应的车位在lots中的下标
+    private int[] openRecords = newPlateTable(16); // 车牌编号 → 未结束记录在records中的下标，未停放时为-1
+    private final SessionLog closedSessions = new SessionLog(); // 序号 → 已结束记录的不可变副本，可以被并发读取
+    private final SessionIndex sessions = new SessionIndex(SESSION_BUCKET_MILLIS); // 已结束记录的索引，可以被并发读取
+    private final StatusRenderer renderer = new Renderer(); // 渲染当前状态，不持有额外的状态
+
+    private static final long SESSION_BUCKET_MILLIS = 60L * 60 * 1000; // 按小时划分已结束记录
 
     /**
      * Abstraction Function (AF):
-     * AF(c) = 一个停车场，如果c.lots为空，则代表一个没有车位的停车场；否则，对于每个非空的Lot l ∈ c.lots，
-     * 表示一个具有编号l.getNumber()和宽度l.getWidth()的车位。如果c.status包含l作为键，
-     * 则该车位被c.status.get(l)表示的Car占用。c.records表示该停车场的所有停车记录，其中每个Record r
-     * 描述了一次停车行为，包括车辆r.getCar()在时间r.getTimeIn()时停入车位r.getLot()，并在r.getTimeOut()时离开，
-     * 该次停车花费了r.getFee()元。
+     * AF(c) = 一个停车场，如果c.lots为空，则代表一个没有车位的停车场；否则，对于每个下标i，Lot l = c.lots.get(i)
+     * 表示一个具有编号l.getNumber()和宽度l.getWidth()的车位。如果!c.freeLots.isFree(i)，
+     * 则该车位被车牌为c.plates.plateOf(c.occupants.get(i))的车辆占用，该车辆为其未结束记录中的Car。
+     * 该停车场的第i条停车记录在尚未结束时为c.records.get(i)，其中Record r描述了车辆r.getCar()在时间r.getTimeIn()时
+     * 停入车位r.getLot()；结束后为c.closedSessions.get(i)，还包括离场时间和该次停车的费用。c.parkedLots是c.occupants的反向索引，以车牌在c.plates中的编号为下标。
+     * c.sampler用于在宽度足够的空闲车位中均匀随机地分配车位，c.randoms为每个线程提供从同一种子派生的随机数生成器。
+     * c.sortedNumbers和c.sortedLotIndex用于按编号二分查找车位。c.openRecords记录每辆在场车辆对应的未结束记录，
+     * c.sessions按车牌和入场时间索引c.closedSessions中的记录。
      * <p>
      * Representation Invariant (RI):
      * - c.lots.size() >= 5 表示停车场至少有5个车位。
-     * - c.lots.size() >= c.status.size() 确保车位数不少于已停车辆数。
-     * - c.status中的每个键均为c.lots中的元素，保证每个已占用的车位都是有效车位。
-     * - c.status中的值（Car对象）之间不重复，确保每辆车只占用一个车位。
-     * - 对于c.status中的每个条目<key, value>，value（Car对象）的宽度不大于key（Lot对象）的宽度，保证车辆可以适合其车位。
-     * - 对于c.records中的每个Record对象r，如果r.getTimeOut()为空，则必须有一个与之对应的条目<key, value>在c.status中，
-     *   其中key为r.getLot()且value为r.getCar()，表示正在停车中的记录必须与当前占用状态一致。
+     * - c.lots.size() >= c.freeLots.occupiedCount() 确保车位数不少于已停车辆数。
+     * - c.parkedLots.length == c.openRecords.length，其中不为-1的项数等于c.freeLots.occupiedCount()，
+     *   且对于每个被占用的车位下标i，c.parkedLots[c.occupants.get(i)] == i，确保每辆车只占用一个车位。
+     * - c.openRecords[id] != -1当且仅当c.parkedLots[id] != -1，且对于每个这样的id，记录r = c.records.get(c.openRecords[id])
+     *   尚未结束，r.getCar().getId() == id，r.getLot() == c.lots.get(c.parkedLots[id])，
+     *   且r.getCar()的宽度不大于r.getLot()的宽度，表示正在停车中的记录必须与当前占用状态一致。
+     * - c.records中非null的记录恰好是c.openRecords中的记录，它们都尚未结束。
+     * - c.records.get(i)为null当且仅当c.closedSessions.get(i)不为null。
+     * - c.sampler中的计数与c.freeLots中的占用情况一致。
+     * - c.sortedNumbers严格升序，且对于每个i，c.lots.get(c.sortedLotIndex[i]).getNumber() == c.sortedNumbers[i]。
+     * - c.sessions.size()等于c.records中null的数量，即已结束记录的数量。
      */
 
     /**
      * 检查表示不变量是否被保持。
      * 这个方法应该在构造器和修改内部状态的方法后被私有调用，以确保类的状态始终有效。
+     * <p>
+     * 检查需要遍历所有车位和停车记录，因此只在启用断言（-ea）时执行；未启用断言时，停车和驶离的代价与历史记录的多少无关。
      */
     private void checkRep() {
+        assert repOk();
+    }
+
+    /**
+     * 逐项断言表示不变量，只由{@link #checkRep()}在启用断言时调用。
+     *
+     * @return 总是返回true；不变量被破坏时由其中的断言抛出AssertionError。
+     */
+    private boolean repOk() {
+        int occupied = freeLots.occupiedCount();
         assert lots.size() >= 5 : "停车场至少应有5个车位。";
-        assert lots.size() >= status.size() : "车位数应不少于已停车辆数。";
+        assert lots.size() >= occupied : "车位数应不少于已停车辆数。";
 
-        // 检查status中的每个key是否在lots中
-        for (Lot lot : status.keySet()) {
-            assert lots.contains(lot) : "每个已占用的车位都应为有效车位。";
+        // 检查反向索引是否与当前占用状态一致，保证每辆车只占用一个车位
+        assert parkedLots.length == openRecords.length : "按车牌编号的两张表应一样长。";
+        int parked = 0;
+        for (int lotIndex : parkedLots) {
+            if (lotIndex >= 0) {
+                parked++;
+            }
         }
-
-        // 检查status中的车辆是否不重复
-        Set<Car> cars = new HashSet<>(status.values());
-        assert cars.size() == status.values().size() : "每辆车只能占用一个车位。";
-
-        // 检查车辆宽度是否适合其车位
-        for (Map.Entry<Lot, Car> entry : status.entrySet()) {
-            assert entry.getKey().getWidth() >= entry.getValue().getWidth() : "车辆宽度应小于等于车位宽度。";
+        assert parked == occupied : "反向索引应与占用状态大小一致。";
+        for (int i = freeLots.nextOccupied(0); i >= 0; i = freeLots.nextOccupied(i + 1)) {
+            assert parkedLotOf(occupants.get(i)) == i : "反向索引应与占用状态一致。";
         }
 
         // 检查正在停车中的记录是否与当前占用状态一致
-        for (Record record : records) {
-            if (record.getTimeOut() == null) { // 表示车辆尚未离开
-                assert status.containsKey(record.getLot()) && status.get(record.getLot()).equals(record.getCar()) :
-                        "正在停车中的记录应与当前占用状态一致。";
+        for (int id = 0; id < openRecords.length; id++) {
+            assert (openRecords[id] >= 0) == (parkedLots[id] >= 0) : "每辆在场车辆应有一条未结束的记录。";
+            if (openRecords[id] < 0) {
+                continue;
             }
+            Record record = records.get(openRecords[id]);
+            assert record.getTimeOut() == null : "在场车辆的记录应尚未结束。";
+            assert record.getCar().getId() == id : "记录中的车辆应与车牌编号一致。";
+            assert record.getLot() == lots.get(parkedLots[id]) : "正在停车中的记录应与当前占用状态一致。";
+            assert record.getLot().getWidth() >= record.getCar().getWidth() : "车辆宽度应小于等于车位宽度。";
+        }
+        int open = 0;
+        for (int i = 0; i < records.size(); i++) {
+            Record record = records.get(i);
+            if (record != null) { // 表示车辆尚未离开
+                assert record.getTimeOut() == null : "结束的记录应已移入closedSessions。";
+                open++;
+            }
+            assert (record == null) == (closedSessions.get(i) != null) : "每条记录应恰好在一处保存。";
+        }
+        assert open == parked : "未结束的记录应全部对应在场车辆。";
+
+        // 检查随机分配的抽样结构是否与当前占用状态一致
+        assert sampler.countFree(0) == lots.size() - occupied : "抽样结构应与占用状态一致。";
+
+        // 检查按编号查找车位的索引
+        assert sortedNumbers.length == lots.size() : "编号索引应覆盖所有车位。";
+        for (int i = 0; i < sortedNumbers.length; i++) {
+            assert i == 0 || sortedNumbers[i - 1] < sortedNumbers[i] : "车位编号应唯一且有序。";
+            assert lots.get(sortedLotIndex[i]).getNumber() == sortedNumbers[i] : "编号索引应与车位一致。";
         }
+
+        // 检查已结束记录的索引
+        assert sessions.size() == records.size() - open : "已结束的记录应全部被索引。";
+        return true;
     }
 
     public ConcreteParkingField(int[] nos, int[] widths) {
         // TODO
+        indexLots();
         checkRep();
     }
 
@@ -86,9 +153,76 @@ public class ConcreteParkingField implements ParkingField{
             lots.add(new Lot(lotNumber, width));
         }
 
+        indexLots();
         checkRep();
     }
 
+    /**
+     * 创建一个新的停车场对象，车位可以带有位置信息。
+     *
+     * @param lotsInfo 停车场的车位列表，车位编号不能重复。
+     * @throws IllegalArgumentException 如果`lotsInfo`的大小小于5，或者其中任何车位的编号或宽度不是正整数，
+     *                                  或者车位编号有重复，则抛出此异常。
+     * @throws NullPointerException     如果`lotsInfo`或其中的元素为null，则抛出此异常。
+     */
+    public ConcreteParkingField(List<Lot> lotsInfo) {
+        if (lotsInfo == null) {
+            throw new NullPointerException("The input list `lotsInfo` cannot be null.");
+        }
+        if (lotsInfo.size() < 5) {
+            throw new IllegalArgumentException("The size of `lotsInfo` must be at least 5.");
+        }
+
+        Set<Integer> numbers = new HashSet<>();
+        for (Lot lot : lotsInfo) {
+            if (lot == null) {
+                throw new NullPointerException("Lots in `lotsInfo` cannot be null.");
+            }
+            if (lot.getNumber() <= 0 || lot.getWidth() <= 0) {
+                throw new IllegalArgumentException("Lot numbers and widths must be positive integers.");
+            }
+            if (!numbers.add(lot.getNumber())) {
+                throw new IllegalArgumentException("Duplicate lot number: " + lot.getNumber());
+            }
+            lots.add(lot);
+        }
+
+        indexLots();
+        checkRep();
+    }
+
+    /**
+     * 在lots确定后建立车位的索引，由每个构造器调用一次。
+     */
+    private void indexLots() {
+        freeLots = new FreeLotIndex(lots);
+        sampler = new FreeLotSampler(lots, freeLots);
+        occupants = ByteBuffer.allocateDirect(Math.max(1, lots.size()) * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+
+        // 将(编号, 下标)打包成long排序，避免装箱和比较器
+        long[] packed = new long[lots.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = ((long) lots.get(i).getNumber() << 32) | i;
+        }
+        Arrays.sort(packed);
+        sortedNumbers = new int[packed.length];
+        sortedLotIndex = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            sortedNumbers[i] = (int) (packed[i] >>> 32);
+            sortedLotIndex[i] = (int) packed[i];
+        }
+    }
+
+    /**
+     * 返回编号为`num`的车位在lots中的下标；若不存在该车位，则返回-1。
+     */
+    private int lotIndexOf(int num) {
+        int i = Arrays.binarySearch(sortedNumbers, num);
+        return (i < 0) ? -1 : sortedLotIndex[i];
+    }
+
     /**
      * 将指定车辆停放在停车场的特定停车位上。
      * <p>
@@ -118,39 +252,93 @@ public class ConcreteParkingField implements ParkingField{
         }
 
         // 检查车位编号是否合法
-        Optional<Lot> targetLot = lots.stream()
-                .filter(lot -> lot.getNumber() == num)
-                .findFirst();
-        if (!targetLot.isPresent()) {
+        int lotIndex = lotIndexOf(num);
+        if (lotIndex < 0) {
             throw new IllegalArgumentException("Parking lot number " + num + " is not a valid lot number.");
         }
 
         // 检查车位是否已被占用
-        if (status.containsKey(targetLot.get())) {
+        if (!freeLots.isFree(lotIndex)) {
             throw new IllegalStateException("Parking lot number " + num + " is already occupied.");
         }
 
         // 检查车位宽度是否适合
-        if (targetLot.get().getWidth() < width) {
+        if (lots.get(lotIndex).getWidth() < width) {
             throw new IllegalStateException("The car's width is too wide for the parking lot.");
         }
 
         // 检查车辆是否已在停车场中
-        boolean isAlreadyParked = status.values().stream()
-                .anyMatch(car -> car.getPlate().equals(plate));
-        if (isAlreadyParked) {
+        checkNotParked(plate);
+
+        // 执行停车操作
+        occupy(lotIndex, plate, width);
+
+        checkRep();
+    }
+
+    /**
+     * 如果车牌为`plate`的车辆已停在停车场中，则抛出IllegalStateException。
+     */
+    private void checkNotParked(String plate) {
+        if (parkedLotOf(plates.lookup(plate)) >= 0) {
             throw new IllegalStateException("The car with plate " + plate + " is already parked in the parking field.");
         }
+    }
 
-        // 执行停车操作
-        Car car = new Car(plate, width); // 假设Car类有一个合适的构造器
-        status.put(targetLot.get(), car);
+    /**
+     * 返回车牌编号为`plateId`的车辆所停车位在lots中的下标；若未停放（包括`plateId`为-1），则返回-1。
+     */
+    private int parkedLotOf(int plateId) {
+        return (plateId < 0 || plateId >= parkedLots.length) ? -1 : parkedLots[plateId];
+    }
+
+    /**
+     * 返回车牌编号为`plateId`的车辆的未结束记录在records中的下标；若未停放（包括`plateId`为-1），则返回-1。
+     */
+    private int openRecordOf(int plateId) {
+        return (plateId < 0 || plateId >= openRecords.length) ? -1 : openRecords[plateId];
+    }
+
+    /**
+     * 确保按车牌编号索引的表能容纳编号`plateId`，新增的项均为-1。字典中的编号从0开始连续分配，因此表的长度与车牌数成正比。
+     */
+    private void ensurePlateCapacity(int plateId) {
+        if (plateId >= parkedLots.length) {
+            int capacity = Math.max(plateId + 1, parkedLots.length * 2);
+            parkedLots = growPlateTable(parkedLots, capacity);
+            openRecords = growPlateTable(openRecords, capacity);
+        }
+    }
+
+    private static int[] newPlateTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    private static int[] growPlateTable(int[] table, int capacity) {
+        int[] grown = Arrays.copyOf(table, capacity);
+        Arrays.fill(grown, table.length, capacity, -1);
+        return grown;
+    }
+
+    /**
+     * 将车辆停入下标为`lotIndex`的空闲车位，并记录停车记录。调用前应已完成所有检查。
+     */
+    private void occupy(int lotIndex, String plate, int width) {
+        Lot lot = lots.get(lotIndex);
+        // 回头客复用字典中缓存的Car对象
+        Car car = plates.carOf(plate, width);
+        occupants.put(lotIndex, car.getId());
+        ensurePlateCapacity(car.getId());
+        parkedLots[car.getId()] = lotIndex;
+        freeLots.occupy(lotIndex);
+        sampler.occupy(lotIndex);
 
         // 记录停车记录
-        Record record = new Record(car, targetLot.get()); // 假设Record类有一个合适的构造器
+        Record record = new Record(car, lot);
+        openRecords[car.getId()] = records.size();
         records.add(record);
-
-        checkRep();
     }
 
     /**
@@ -159,6 +347,9 @@ public class ConcreteParkingField implements ParkingField{
      * 此方法尝试为具有特定车牌号和宽度的车辆自动寻找并分配一个空闲的停车位。
      * 只有当车辆之前未停在停车场中，且存在至少一个空闲的停车位其宽度大于车辆宽度时，
      * 操作才会成功。成功执行后，车辆将被分配到满足条件的一个空闲停车位上，而其他车位的状态保持不变。
+     * <p>
+     * 车位在所有宽度足够的空闲车位中均匀随机地选取，代价为O(log N)。每个线程使用自己的随机数生成器，
+     * 它们都由{@link #setRandomSeed(long)}设置的种子派生，因此单线程下固定种子即可重放相同的分配结果。
      *
      * @param plate 要停进来的车辆的车牌号，不能为空（not null）且不为空字符串。
      * @param width 车辆的宽度，以某个单位（如米）表示。必须是正整数，表示车辆所需的最小车位宽度。
@@ -172,10 +363,76 @@ public class ConcreteParkingField implements ParkingField{
      */
     @Override
     public void parking(String plate, int width) throws Exception {
-        // TODO
+        if (plate == null || plate.isEmpty() || width <= 0) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        checkNotParked(plate);
+
+        int lotIndex = sampler.sample(width, randoms.get());
+        if (lotIndex < 0) {
+            throw new IllegalStateException("No free lot is wide enough for the car with plate " + plate + ".");
+        }
+        occupy(lotIndex, plate, width);
+
         checkRep();
     }
 
+    /**
+     * 设置随机分配车位所用的种子。
+     * <p>
+     * 此后每个线程第一次随机分配车位时，会从以`seed`为种子的生成器中派生出自己的随机数生成器，
+     * 线程之间不共享生成器，也就不会在生成器上竞争。新的生成器通过volatile字段发布，之后在任何线程中的分配都会使用它；
+     * 与本方法同时进行的分配使用新旧生成器中的一个。
+     *
+     * @param seed 随机数种子。
+     */
+    public void setRandomSeed(long seed) {
+        randoms = newRandoms(new SplittableRandom(seed));
+    }
+
+    /**
+     * 返回为每个线程从`source`派生一个随机数生成器的ThreadLocal。
+     */
+    private static ThreadLocal<SplittableRandom> newRandoms(SplittableRandom source) {
+        return ThreadLocal.withInitial(() -> {
+            synchronized (source) {
+                return source.split();
+            }
+        });
+    }
+
+    /**
+     * 为车辆分配离入口最近的、宽度足够的空闲车位。
+     * <p>
+     * 距离按车位和入口在(x, y, level)三维空间中的欧氏距离计算；没有位置信息的车位视为位于原点。
+     * 查询由空间索引完成，即使车位数很多，也无需遍历所有车位。
+     *
+     * @param plate 要停进来的车辆的车牌号，不能为空（not null）且不为空字符串。
+     * @param width 车辆的宽度，必须是正整数。
+     * @param x     入口的x坐标。
+     * @param y     入口的y坐标。
+     * @param level 入口所在的楼层。
+     * @return 分配给该车辆的车位编号。
+     * @throws IllegalArgumentException 如果`plate`为空（null或空字符串），或`width`不是正整数。
+     * @throws IllegalStateException    如果`plate`对应的车辆已经停在停车场中，或者停车场中没有足够宽的空闲车位。
+     */
+    @Override
+    public int parkingNearest(String plate, int width, int x, int y, int level) throws Exception {
+        if (plate == null || plate.isEmpty() || width <= 0) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        checkNotParked(plate);
+
+        int lotIndex = freeLots.nearest(width, x, y, level);
+        if (lotIndex < 0) {
+            throw new IllegalStateException("No free lot is wide enough for the car with plate " + plate + ".");
+        }
+        occupy(lotIndex, plate, width);
+
+        checkRep();
+        return lots.get(lotIndex).getNumber();
+    }
+
     /**
      * 处理车辆驶离停车场的操作，并计算本次停车的费用。
      * <p>
@@ -190,9 +447,164 @@ public class ConcreteParkingField implements ParkingField{
      */
     @Override
     public double depart(String plate) throws Exception {
-        // TODO
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        int plateId = plates.lookup(plate);
+        int lotIndex = parkedLotOf(plateId);
+        if (lotIndex < 0) {
+            throw new IllegalStateException("The car with plate " + plate + " is not parked in the parking field.");
+        }
+
+        // 结束停车记录并计算费用
+        int ordinal = openRecords[plateId];
+        Record record = records.get(ordinal);
+        record.setTimeOut();
+        double fee = record.calcFee();
+
+        // 释放车位，把记录移入closedSessions，最后索引它；这些操作都不会失败，不会留下不一致的状态。
+        // 索引是并发查询看到这条记录的发布点，因此必须在记录保存之后加入
+        openRecords[plateId] = -1;
+        parkedLots[plateId] = -1;
+        freeLots.release(lotIndex);
+        sampler.release(lotIndex);
+        Car car = record.getCar();
+        Lot lot = record.getLot();
+        closedSessions.put(ordinal, new ArchivedSession(ordinal, car.getPlate(), car.getWidth(), lot.getNumber(),
+                lot.getWidth(), record.getTimeInMillis(), record.getTimeOut().getTimeInMillis(), fee));
+        records.set(ordinal, null);
+        sessions.add(ordinal, plateId, record.getTimeInMillis());
+
         checkRep();
-        return 0;
+        return fee;
+    }
+
+    /**
+     * 查询车辆若此刻离场需要支付的费用，但不执行驶离操作。
+     * <p>
+     * 费用的计算规则与{@link #depart(String)}相同。每次停车的报价会被缓存到下一个计费边界（下一个半小时），
+     * 因此在缴费机上重复查询以及随后的驶离都无需重新计算费用。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return double 截至此刻的停车费用。
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException    如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    @Override
+    public double quoteFee(String plate) {
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        int ordinal = openRecordOf(plates.lookup(plate));
+        if (ordinal < 0) {
+            throw new IllegalStateException("The car with plate " + plate + " is not parked in the parking field.");
+        }
+        return records.get(ordinal).quoteFee(System.currentTimeMillis());
+    }
+
+    /**
+     * 查询在场车辆所停车位的编号。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return 车辆所停车位的编号。
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException    如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    @Override
+    public int lotOf(String plate) {
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        int lotIndex = parkedLotOf(plates.lookup(plate));
+        if (lotIndex < 0) {
+            throw new IllegalStateException("The car with plate " + plate + " is not parked in the parking field.");
+        }
+        return lots.get(lotIndex).getNumber();
+    }
+
+    /**
+     * 查询在场车辆本次停车的入场时间。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return 入场时间的副本。
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException    如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    @Override
+    public Calendar parkedSince(String plate) {
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        int ordinal = openRecordOf(plates.lookup(plate));
+        if (ordinal < 0) {
+            throw new IllegalStateException("The car with plate " + plate + " is not parked in the parking field.");
+        }
+        return records.get(ordinal).getTimeIn();
+    }
+
+    /**
+     * 返回某车辆在时间段[from, to)内入场、且已经结束的所有停车记录。
+     * <p>
+     * 查询通过按车牌建立的索引完成，代价与该车辆的记录数的对数及结果数成正比，与停车场的历史记录总数无关。
+     * 返回的记录是不可变的，其序号为记录在本停车场所有停车记录中的位置。
+     * <p>
+     * 本方法不修改停车场，可以在其他线程中与一个正在停车或驶离的线程并发调用，看到的是最近一次驶离完成后的历史记录。
+     *
+     * @param plate 车牌号，不能为null。
+     * @param from  时间段的起点（包含），不能为null。
+     * @param to    时间段的终点（不包含），不能为null。
+     * @return 按入场时间排序的停车记录；没有符合条件的记录时返回空列表。
+     * @throws NullPointerException 如果任一参数为null。
+     */
+    @Override
+    public List<ArchivedSession> history(String plate, Calendar from, Calendar to) {
+        if (plate == null || from == null || to == null) {
+            throw new NullPointerException("Parameters cannot be null.");
+        }
+        int plateId = plates.lookup(plate);
+        if (plateId < 0) {
+            return Collections.emptyList();
+        }
+        return sessionsAt(sessions.sessionsOf(plateId, from.getTimeInMillis(), to.getTimeInMillis()));
+    }
+
+    /**
+     * 返回在时间段[from, to)内入场、且已经结束的所有停车记录。
+     * <p>
+     * 查询通过按小时划分的时间索引完成，只访问与时间段相交的时间桶。返回的记录是不可变的，
+     * 按入场的小时排序，同一小时内按驶离的顺序排列。
+     * <p>
+     * 与{@link #history(String, Calendar, Calendar)}一样，本方法可以与一个正在停车或驶离的线程并发调用。
+     *
+     * @param from 时间段的起点（包含），不能为null。
+     * @param to   时间段的终点（不包含），不能为null。
+     * @return 停车记录；没有符合条件的记录时返回空列表。
+     * @throws NullPointerException 如果任一参数为null。
+     */
+    @Override
+    public List<ArchivedSession> sessionsBetween(Calendar from, Calendar to) {
+        if (from == null || to == null) {
+            throw new NullPointerException("Parameters cannot be null.");
+        }
+        return sessionsAt(sessions.sessionsBetween(from.getTimeInMillis(), to.getTimeInMillis()));
+    }
+
+    /**
+     * 返回序号为`ordinals`的已结束记录。记录是不可变的，调用者无法通过它们修改停车场中的记录。
+     */
+    private List<ArchivedSession> sessionsAt(long[] ordinals) {
+        List<ArchivedSession> result = new ArrayList<>(ordinals.length);
+        for (long ordinal : ordinals) {
+            result.add(closedSessions.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * 返回车位列表的只读视图，顺序即渲染和{@link #status()}所用的车位顺序。车位在构造后不再变化，视图可以被并发读取。
+     */
+    List<Lot> lots() {
+        return Collections.unmodifiableList(lots);
     }
 
     /**
@@ -210,15 +622,11 @@ public class ConcreteParkingField implements ParkingField{
     @Override
     public Map<Integer, String> status() {
         Map<Integer, String> parkingStatus = new HashMap<>();
-        for (Lot lot : lots) {
-            // 默认车位为空闲状态
-            String plate = "";
-            // 如果当前车位有车，则获取车牌号
-            if (status.containsKey(lot)) {
-                plate = status.get(lot).getPlate();
-            }
+        for (int i = 0; i < lots.size(); i++) {
+            // 空闲车位的车牌号为空字符串
+            String plate = plateAt(i);
             // 将车位编号和车牌号（或空字符串）放入返回的映射中
-            parkingStatus.put(lot.getNumber(), plate);
+            parkingStatus.put(lots.get(i).getNumber(), (plate == null) ? "" : plate);
         }
         return parkingStatus;
     }
@@ -248,12 +656,8 @@ public class ConcreteParkingField implements ParkingField{
      */
     @Override
     public boolean isLotInParkingField(int num, int width) {
-        for (Lot lot : lots) {
-            if (lot.getNumber() == num && lot.getWidth() == width)
-                return true;
-        }
-
-        return false;
+        int lotIndex = lotIndexOf(num);
+        return lotIndex >= 0 && lots.get(lotIndex).getWidth() == width;
     }
 
     /**
@@ -266,7 +670,7 @@ public class ConcreteParkingField implements ParkingField{
      */
     @Override
     public boolean isEmpty() {
-        return status.isEmpty();
+        return freeLots.occupiedCount() == 0;
     }
 
     /**
@@ -283,12 +687,11 @@ public class ConcreteParkingField implements ParkingField{
      */
     @Override
     public int getLotWidth(int num) throws IllegalArgumentException {
-        for (Lot lot : lots) {
-            if (lot.getNumber() == num) {
-                return lot.getWidth();
-            }
+        int lotIndex = lotIndexOf(num);
+        if (lotIndex < 0) {
+            throw new IllegalArgumentException("Invalid lot number: " + num);
         }
-        throw new IllegalArgumentException("Invalid lot number: " + num);
+        return lots.get(lotIndex).getWidth();
     }
 
     /**
@@ -315,24 +718,90 @@ public class ConcreteParkingField implements ParkingField{
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        // 计算占用的车位数量
-        int occupiedLots = (int) status.keySet().stream().filter(lot -> lots.contains(lot)).count();
-        // 计算占用的百分比
-        double occupiedPercentage = ((double) occupiedLots / lots.size()) * 100;
-
-        sb.append("The parking field has total number of lots: ").append(lots.size()).append("\n");
-        sb.append("Now ").append(String.format("%.0f%%", occupiedPercentage)).append(" lots are occupied").append("\n");
-
-        for (Lot lot : lots) {
-            sb.append("Lot ").append(lot.getNumber()).append(" (").append(lot.getWidth()).append("): \t");
-            if (status.containsKey(lot)) {
-                Car car = status.get(lot);
-                sb.append("Car ").append(car.getPlate());
-            } else {
-                sb.append("Free");
-            }
-            sb.append("\n");
+        try {
+            renderText(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder不会抛出IOException
         }
         return sb.toString();
     }
+
+    /**
+     * 将停车场的当前状态以文本形式写入`out`，格式与{@link Object#toString()}返回的字符串完全相同。
+     * <p>
+     * 此方法不创建中间字符串，也不使用{@link String#format}，适合高频刷新的显示屏。
+     * 如需写入{@link java.nio.ByteBuffer}，可使用{@link ByteBufferAppendable}包装该缓冲区。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    @Override
+    public void renderText(Appendable out) throws IOException {
+        renderer.renderText(out);
+    }
+
+    /**
+     * 将停车场的当前状态以CSV形式写入`out`。
+     * <p>
+     * 第一行为表头"number,width,plate"，之后每个车位占一行，依次为车位编号、宽度和车牌号；
+     * 空闲车位的车牌号字段为空。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    @Override
+    public void renderCsv(Appendable out) throws IOException {
+        renderer.renderCsv(out);
+    }
+
+    /**
+     * 将停车场的当前状态以紧凑的JSON形式写入`out`。
+     * <p>
+     * 格式示例：{"total":5,"occupied":1,"lots":[{"number":1,"width":200,"plate":"AB001"},...]}，
+     * 空闲车位的plate为空字符串。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    @Override
+    public void renderJson(Appendable out) throws IOException {
+        renderer.renderJson(out);
+    }
+
+    /**
+     * 返回停在下标为`lotIndex`的车位上的车辆的车牌号；若车位空闲，则返回null。
+     */
+    private String plateAt(int lotIndex) {
+        return freeLots.isFree(lotIndex) ? null : plates.plateOf(occupants.get(lotIndex));
+    }
+
+    /**
+     * 按lots中的顺序渲染本停车场的当前状态。
+     */
+    private class Renderer extends StatusRenderer {
+        @Override
+        int lotCount() {
+            return lots.size();
+        }
+
+        @Override
+        int occupiedCount() {
+            return freeLots.occupiedCount();
+        }
+
+        @Override
+        int numberAt(int i) {
+            return lots.get(i).getNumber();
+        }
+
+        @Override
+        int widthAt(int i) {
+            return lots.get(i).getWidth();
+        }
+
+        @Override
+        String plateAt(int i) {
+            return ConcreteParkingField.this.plateAt(i);
+        }
+    }
 }
@@ -0,0 +1,395 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 线程安全的停车场包装。
+ * <p>
+ * 停车和驶离操作在写锁下串行执行。查询操作从不获取任何锁，也就不会让入口和出口的写操作等待：
+ * <ul>
+ *     <li>车位的占用情况保存在分块的写时复制数组中：每次写操作只复制被修改的块（1024个车位）
+ *     和块的索引（N / 1024项），然后通过volatile字段发布一个新的不可变快照，而不是复制全部N个车位；</li>
+ *     <li>在场车辆的车位和入场时间保存在{@link ConcurrentHashMap}中，供报价等查询使用；</li>
+ *     <li>历史记录直接由被包装的停车场回答：它的已结束记录和索引本身就允许一个写线程与多个读线程并发访问，
+ *     因此这里不再保存历史记录的副本。</li>
+ * </ul>
+ * 每个查询读取的是最近一次发布的状态；不同的查询之间可能相差一次正在进行的写操作。
+ * 渲染和{@link #status()}的车位顺序、历史查询的结果及其顺序都与被包装的停车场相同。
+ */
+public class ConcurrentParkingField implements ParkingField {
+    private static final int CHUNK_BITS = 10; // 每块1024个车位
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    // Rep
+    private final ConcreteParkingField field; // 被包装的停车场，修改只在写锁内进行，历史查询不加锁
+    private final ReentrantLock writeLock = new ReentrantLock(); // 串行化写操作，查询从不获取
+    private final int[] numbers; // 车位下标 → 车位编号，顺序与被包装的停车场相同，不可变
+    private final int[] widths; // 车位下标 → 车位宽度，不可变
+    private final int[] sortedNumbers; // 按升序排列的车位编号，不可变
+    private final int[] sortedSlots; // sortedNumbers[i]对应的车位下标，不可变
+    private volatile Occupancy occupancy; // 最近发布的占用情况，不可变
+    private final Map<String, Parked> parked = new ConcurrentHashMap<>(); // 车牌号 → 在场车辆
+
+    /**
+     * Abstraction Function (AF):
+     * AF(c) = 停车场c.field。
+     * <p>
+     * Representation Invariant (RI):
+     * - c.numbers[i]和c.widths[i]为c.field的第i个车位的编号和宽度。
+     * - c.sortedNumbers严格升序，且c.numbers[c.sortedSlots[i]] == c.sortedNumbers[i]。
+     * - 不持有写锁时，c.occupancy中第i个车位的车牌号等于c.field.status().get(c.numbers[i])（空闲时为null）。
+     * - 不持有写锁时，c.parked的键恰好是c.field中在场车辆的车牌号，其车位和入场时间与c.field一致。
+     */
+
+    /**
+     * 包装一个停车场，使其可以被多个线程同时访问。
+     *
+     * @param field 被包装的停车场，包装后不应再被直接访问。
+     * @throws NullPointerException 如果`field`为null。
+     */
+    public ConcurrentParkingField(ConcreteParkingField field) {
+        if (field == null) {
+            throw new NullPointerException("The parking field cannot be null.");
+        }
+        this.field = field;
+        List<Lot> lots = field.lots();
+        numbers = new int[lots.size()];
+        widths = new int[lots.size()];
+        // 将(编号, 下标)打包成long排序，避免装箱和比较器
+        long[] packed = new long[lots.size()];
+        for (int i = 0; i < lots.size(); i++) {
+            numbers[i] = lots.get(i).getNumber();
+            widths[i] = lots.get(i).getWidth();
+            packed[i] = ((long) numbers[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        sortedNumbers = new int[packed.length];
+        sortedSlots = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            sortedNumbers[i] = (int) (packed[i] >>> 32);
+            sortedSlots[i] = (int) packed[i];
+        }
+
+        Map<Integer, String> status = field.status();
+        String[] plates = new String[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            String plate = status.get(numbers[i]);
+            if (!plate.isEmpty()) {
+                plates[i] = plate;
+                parked.put(plate, new Parked(i, field.parkedSince(plate).getTimeInMillis()));
+            }
+        }
+        occupancy = Occupancy.of(numbers, widths, plates);
+    }
+
+    @Override
+    public void parking(String plate, int width, int num) throws Exception {
+        writeLock.lock();
+        try {
+            field.parking(plate, width, num);
+            publishParked(plate, num);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void parking(String plate, int width) throws Exception {
+        writeLock.lock();
+        try {
+            field.parking(plate, width);
+            publishParked(plate, field.lotOf(plate));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int parkingNearest(String plate, int width, int x, int y, int level) throws Exception {
+        writeLock.lock();
+        try {
+            int num = field.parkingNearest(plate, width, x, y, level);
+            publishParked(plate, num);
+            return num;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public double depart(String plate) throws Exception {
+        writeLock.lock();
+        try {
+            double fee = field.depart(plate);
+            Parked car = parked.remove(plate);
+            occupancy = occupancy.with(car.slot, null);
+            return fee;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 设置被包装的停车场随机分配车位所用的种子，语义同{@link ConcreteParkingField#setRandomSeed(long)}。
+     * <p>
+     * 种子在写锁内设置，因此不会与正在进行的分配交错：之前的分配使用旧的种子，之后的分配都使用新的种子。
+     * 每个写线程从种子派生自己的生成器，只有在同一个线程中依次停车时，固定种子才能重放相同的分配结果。
+     *
+     * @param seed 随机数种子。
+     */
+    public void setRandomSeed(long seed) {
+        writeLock.lock();
+        try {
+            field.setRandomSeed(seed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 在写锁内调用，发布车辆`plate`停入编号为`num`的车位。
+     */
+    private void publishParked(String plate, int num) {
+        int slot = slotOf(num);
+        parked.put(plate, new Parked(slot, field.parkedSince(plate).getTimeInMillis()));
+        occupancy = occupancy.with(slot, plate);
+    }
+
+    /**
+     * 返回编号为`num`的车位的下标；若不存在该车位，则返回-1。
+     */
+    private int slotOf(int num) {
+        int i = Arrays.binarySearch(sortedNumbers, num);
+        return (i < 0) ? -1 : sortedSlots[i];
+    }
+
+    private static Calendar at(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 报价根据发布的入场时间计算，不访问被包装的停车场。
+     */
+    @Override
+    public double quoteFee(String plate) {
+        return parkedCar(plate).quoteFee();
+    }
+
+    @Override
+    public int lotOf(String plate) {
+        return numbers[parkedCar(plate).slot];
+    }
+
+    @Override
+    public Calendar parkedSince(String plate) {
+        return at(parkedCar(plate).timeIn);
+    }
+
+    private Parked parkedCar(String plate) {
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Invalid parameters.");
+        }
+        Parked car = parked.get(plate);
+        if (car == null) {
+            throw new IllegalStateException("The car with plate " + plate + " is not parked in the parking field.");
+        }
+        return car;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 查询不加锁，直接由被包装的停车场回答，结果与其相同。
+     */
+    @Override
+    public List<ArchivedSession> history(String plate, Calendar from, Calendar to) {
+        return field.history(plate, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 查询不加锁，直接由被包装的停车场回答，结果及其顺序与其相同。
+     */
+    @Override
+    public List<ArchivedSession> sessionsBetween(Calendar from, Calendar to) {
+        return field.sessionsBetween(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 返回的映射是不可变的快照，读取同一次发布的读者共享同一个快照。
+     */
+    @Override
+    public Map<Integer, String> status() {
+        return occupancy.status();
+    }
+
+    @Override
+    public int getNumberOfLots() {
+        return numbers.length;
+    }
+
+    @Override
+    public boolean isLotInParkingField(int num, int width) {
+        int slot = slotOf(num);
+        return slot >= 0 && widths[slot] == width;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return occupancy.occupied == 0;
+    }
+
+    @Override
+    public int getLotWidth(int num) throws IllegalArgumentException {
+        int slot = slotOf(num);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Invalid lot number: " + num);
+        }
+        return widths[slot];
+    }
+
+    @Override
+    public void renderText(Appendable out) throws IOException {
+        occupancy.renderText(out);
+    }
+
+    @Override
+    public void renderCsv(Appendable out) throws IOException {
+        occupancy.renderCsv(out);
+    }
+
+    @Override
+    public void renderJson(Appendable out) throws IOException {
+        occupancy.renderJson(out);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            occupancy.renderText(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder不会抛出IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 一辆在场车辆：所停车位在numbers中的下标，以及入场时间（毫秒）。
+     */
+    private static final class Parked {
+        private final int slot;
+        private final long timeIn;
+
+        Parked(int slot, long timeIn) {
+            this.slot = slot;
+            this.timeIn = timeIn;
+        }
+
+        double quoteFee() {
+            return Record.feeBetween(timeIn, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 某一时刻的车位占用情况，发布后不再修改。
+     * <p>
+     * 车牌号按车位下标分块保存，修改一个车位时只复制该车位所在的块和块的索引，其余的块与旧快照共享。
+     */
+    private static final class Occupancy extends StatusRenderer {
+        private final int[] numbers; // 与外部类共享，不可变
+        private final int[] widths; // 与外部类共享，不可变
+        private final String[][] chunks; // 第i个车位上的车牌号为chunks[i >>> CHUNK_BITS][i & CHUNK_MASK]，空闲时为null
+        private final int occupied; // 被占用的车位数
+        private volatile Map<Integer, String> status; // 由第一个调用status()的读者生成，之后共享
+
+        private Occupancy(int[] numbers, int[] widths, String[][] chunks, int occupied) {
+            this.numbers = numbers;
+            this.widths = widths;
+            this.chunks = chunks;
+            this.occupied = occupied;
+        }
+
+        static Occupancy of(int[] numbers, int[] widths, String[] plates) {
+            String[][] chunks = new String[(plates.length + CHUNK_MASK) >>> CHUNK_BITS][];
+            int occupied = 0;
+            for (int c = 0; c < chunks.length; c++) {
+                int from = c << CHUNK_BITS;
+                chunks[c] = Arrays.copyOfRange(plates, from, Math.min(plates.length, from + CHUNK_MASK + 1));
+            }
+            for (String plate : plates) {
+                if (plate != null) {
+                    occupied++;
+                }
+            }
+            return new Occupancy(numbers, widths, chunks, occupied);
+        }
+
+        /**
+         * 返回把第`slot`个车位上的车牌号改为`plate`（null表示空闲）之后的快照。
+         */
+        Occupancy with(int slot, String plate) {
+            String[][] copy = chunks.clone();
+            String[] chunk = chunks[slot >>> CHUNK_BITS].clone();
+            String previous = chunk[slot & CHUNK_MASK];
+            chunk[slot & CHUNK_MASK] = plate;
+            copy[slot >>> CHUNK_BITS] = chunk;
+            int delta = ((plate == null) ? 0 : 1) - ((previous == null) ? 0 : 1);
+            return new Occupancy(numbers, widths, copy, occupied + delta);
+        }
+
+        Map<Integer, String> status() {
+            Map<Integer, String> result = status;
+            if (result == null) {
+                Map<Integer, String> built = new HashMap<>();
+                for (int i = 0; i < numbers.length; i++) {
+                    String plate = plateAt(i);
+                    built.put(numbers[i], (plate == null) ? "" : plate);
+                }
+                // 多个读者可能同时生成，结果相同，保留任意一个即可
+                result = Collections.unmodifiableMap(built);
+                status = result;
+            }
+            return result;
+        }
+
+        @Override
+        int lotCount() {
+            return numbers.length;
+        }
+
+        @Override
+        int occupiedCount() {
+            return occupied;
+        }
+
+        @Override
+        int numberAt(int i) {
+            return numbers[i];
+        }
+
+        @Override
+        int widthAt(int i) {
+            return widths[i];
+        }
+
+        @Override
+        String plateAt(int i) {
+            return chunks[i >>> CHUNK_BITS][i & CHUNK_MASK];
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 空闲车位的空间索引，用于查找离入口最近的、宽度足够的空闲车位。
+ * <p>
+ * 索引是一棵在构造时建好的k-d树，按车位坐标(x, y, level)交替切分，树的形状之后不再变化。
+ * 每个结点额外记录其子树中空闲车位的最大宽度，占用或释放一个车位只需沿该结点到根的路径更新，
+ * 代价为O(log N)；查询时跳过最大空闲宽度不足或包围盒比当前最优解更远的子树。
+ * <p>
+ * 车位在索引中以其在构造参数列表中的下标表示。占用情况保存在堆外的{@link OccupancyBitmap}中，
+ * 因此本索引也可以回答被占用车位的总数，以及按下标顺序遍历被占用的车位。
+ */
+public class FreeLotIndex {
+    // Rep
+    private final List<Lot> lots; // 被索引的车位
+    private final int[] lotAt; // 树结点 → 车位下标
+    private final int[] nodeOf; // 车位下标 → 树结点
+    private final int[] left; // 左孩子结点，-1表示没有
+    private final int[] right; // 右孩子结点，-1表示没有
+    private final int[] parent; // 父结点，-1表示根
+    private final int[] axis; // 结点的切分维度：0为x，1为y，2为level
+    private final int[][] min; // 子树包围盒的下界，min[d][node]
+    private final int[][] max; // 子树包围盒的上界，max[d][node]
+    private final int[] maxFree; // 子树中空闲车位的最大宽度，没有空闲车位时为0
+    private final OccupancyBitmap occupied; // 车位下标 → 是否被占用，存放在堆外
+    private final int root;
+
+    /**
+     * Abstraction Function (AF):
+     * AF(t) = 车位集合t.lots，其中车位t.lots.get(i)空闲当且仅当t.occupied的第i位为0。
+     * <p>
+     * Representation Invariant (RI):
+     * - t.lotAt与t.nodeOf互为逆映射。
+     * - 对于每个结点n，t.maxFree[n]等于以n为根的子树中空闲车位宽度的最大值（没有空闲车位时为0）。
+     * - 对于每个结点n，其左子树中车位在t.axis[n]维上的坐标不大于n的车位，右子树中的不小于n的车位。
+     */
+
+    /**
+     * 为一组车位建立索引，初始时所有车位均为空闲。
+     *
+     * @param lots 被索引的车位，不能为null，且建立索引后不应再被修改。
+     */
+    public FreeLotIndex(List<Lot> lots) {
+        int n = lots.size();
+        this.lots = lots;
+        this.lotAt = new int[n];
+        this.nodeOf = new int[n];
+        this.left = new int[n];
+        this.right = new int[n];
+        this.parent = new int[n];
+        this.axis = new int[n];
+        this.min = new int[3][n];
+        this.max = new int[3][n];
+        this.maxFree = new int[n];
+        this.occupied = new OccupancyBitmap(n);
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        this.root = build(order, 0, n, 0, -1);
+        for (int node = 0; node < n; node++) {
+            lotAt[node] = order[node];
+            nodeOf[order[node]] = node;
+        }
+        if (root >= 0) {
+            initBounds(root);
+        }
+    }
+
+    /**
+     * 以order[lo, hi)建立子树，结点即其在order中的下标，返回子树的根结点。
+     */
+    private int build(Integer[] order, int lo, int hi, int depth, int parentNode) {
+        if (lo >= hi) {
+            return -1;
+        }
+        int d = depth % 3;
+        Comparator<Integer> byAxis = Comparator.comparingInt(i -> coordinate(lots.get(i), d));
+        Arrays.sort(order, lo, hi, byAxis);
+        int mid = (lo + hi) >>> 1;
+        axis[mid] = d;
+        parent[mid] = parentNode;
+        left[mid] = build(order, lo, mid, depth + 1, mid);
+        right[mid] = build(order, mid + 1, hi, depth + 1, mid);
+        return mid;
+    }
+
+    /**
+     * 自底向上计算以node为根的子树的包围盒和最大空闲宽度。
+     */
+    private void initBounds(int node) {
+        Lot lot = lots.get(lotAt[node]);
+        for (int d = 0; d < 3; d++) {
+            min[d][node] = coordinate(lot, d);
+            max[d][node] = coordinate(lot, d);
+        }
+        maxFree[node] = lot.getWidth();
+        for (int child : new int[]{left[node], right[node]}) {
+            if (child < 0) {
+                continue;
+            }
+            initBounds(child);
+            for (int d = 0; d < 3; d++) {
+                min[d][node] = Math.min(min[d][node], min[d][child]);
+                max[d][node] = Math.max(max[d][node], max[d][child]);
+            }
+            maxFree[node] = Math.max(maxFree[node], maxFree[child]);
+        }
+    }
+
+    private static int coordinate(Lot lot, int d) {
+        switch (d) {
+            case 0:
+                return lot.getX();
+            case 1:
+                return lot.getY();
+            default:
+                return lot.getLevel();
+        }
+    }
+
+    /**
+     * 将车位标记为已占用。
+     *
+     * @param lotIndex 车位下标。
+     */
+    public void occupy(int lotIndex) {
+        occupied.set(lotIndex);
+        update(nodeOf[lotIndex]);
+    }
+
+    /**
+     * 将车位标记为空闲。
+     *
+     * @param lotIndex 车位下标。
+     */
+    public void release(int lotIndex) {
+        occupied.clear(lotIndex);
+        update(nodeOf[lotIndex]);
+    }
+
+    /**
+     * @param lotIndex 车位下标。
+     * @return 车位是否空闲。
+     */
+    public boolean isFree(int lotIndex) {
+        return !occupied.get(lotIndex);
+    }
+
+    /**
+     * @return 被占用的车位总数。
+     */
+    public int occupiedCount() {
+        return occupied.cardinality();
+    }
+
+    /**
+     * 按下标顺序查找被占用的车位，可用于遍历所有被占用的车位而不必逐个检查空闲车位。
+     *
+     * @param from 起始下标（包含），不能为负数。
+     * @return 从`from`开始的第一个被占用车位的下标；若不存在，则返回-1。
+     */
+    public int nextOccupied(int from) {
+        return occupied.nextSet(from);
+    }
+
+    private void update(int node) {
+        while (node >= 0) {
+            int best = occupied.get(lotAt[node]) ? 0 : lots.get(lotAt[node]).getWidth();
+            if (left[node] >= 0) {
+                best = Math.max(best, maxFree[left[node]]);
+            }
+            if (right[node] >= 0) {
+                best = Math.max(best, maxFree[right[node]]);
+            }
+            maxFree[node] = best;
+            node = parent[node];
+        }
+    }
+
+    /**
+     * 查找离指定位置最近的、宽度不小于`width`的空闲车位。距离为(x, y, level)三维空间中的欧氏距离。
+     *
+     * @param width 车位的最小宽度。
+     * @param x     入口的x坐标。
+     * @param y     入口的y坐标。
+     * @param level 入口所在的楼层。
+     * @return 最近的空闲车位的下标；若没有满足条件的车位，则返回-1。
+     */
+    public int nearest(int width, int x, int y, int level) {
+        if (root < 0) {
+            return -1;
+        }
+        Search search = new Search(width, new int[]{x, y, level});
+        search.visit(root);
+        return search.bestLot;
+    }
+
+    /**
+     * 一次最近邻查询的状态。
+     */
+    private class Search {
+        private final int width;
+        private final int[] target;
+        private int bestLot = -1;
+        private long bestDistance = Long.MAX_VALUE;
+
+        Search(int width, int[] target) {
+            this.width = width;
+            this.target = target;
+        }
+
+        void visit(int node) {
+            if (node < 0 || maxFree[node] < width || boxDistance(node) >= bestDistance) {
+                return;
+            }
+            int lotIndex = lotAt[node];
+            Lot lot = lots.get(lotIndex);
+            if (lot.getWidth() >= width && !occupied.get(lotIndex)) {
+                long distance = 0;
+                for (int d = 0; d < 3; d++) {
+                    long delta = (long) coordinate(lot, d) - target[d];
+                    distance += delta * delta;
+                }
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestLot = lotIndex;
+                }
+            }
+            // 先访问目标所在一侧的子树，以便尽早收紧最优距离
+            if (target[axis[node]] < coordinate(lot, axis[node])) {
+                visit(left[node]);
+                visit(right[node]);
+            } else {
+                visit(right[node]);
+                visit(left[node]);
+            }
+        }
+
+        private long boxDistance(int node) {
+            long distance = 0;
+            for (int d = 0; d < 3; d++) {
+                long delta = 0;
+                if (target[d] < min[d][node]) {
+                    delta = (long) min[d][node] - target[d];
+                } else if (target[d] > max[d][node]) {
+                    delta = (long) target[d] - max[d][node];
+                }
+                distance += delta * delta;
+            }
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 从宽度足够的空闲车位中均匀随机地抽取一个车位。
+ * <p>
+ * 车位按宽度升序排列，宽度不小于W的车位恰好构成该序列的一个后缀。序列上维护一棵树状数组（Fenwick树），
+ * 空闲车位记为1、被占用的车位记为0，于是后缀中空闲车位的个数以及其中第k个空闲车位都可以在O(log N)内求得。
+ * 抽样时先求出后缀中的空闲车位数c，再均匀地取k ∈ [0, c)，返回第k个空闲车位。
+ * <p>
+ * 车位在本类中以其在构造参数列表中的下标表示。车位是否空闲以{@link FreeLotIndex}为准，本类不另存一份占用情况，
+ * 只在树状数组中维护计数；车位的状态在FreeLotIndex中改变后，应调用{@link #occupy(int)}或{@link #release(int)}同步计数。
+ * 随机数由调用者提供，以便固定种子后重放相同的分配结果。
+ */
+public class FreeLotSampler {
+    // Rep
+    private final int[] sortedWidths; // 按升序排列的车位宽度
+    private final int[] lotAt; // 位置（从1开始）→ 车位下标，lotAt[0]不使用
+    private final int[] positionOf; // 车位下标 → 位置（从1开始）
+    private final int[] tree; // 树状数组，tree[p]为位置(p - lowbit(p), p]中空闲车位的个数
+    private final FreeLotIndex freeLots; // 车位的占用情况，由调用者维护
+
+    /**
+     * Abstraction Function (AF):
+     * AF(s) = 一组车位，其中下标为i的车位空闲当且仅当s.freeLots.isFree(i)。
+     * <p>
+     * Representation Invariant (RI):
+     * - s.lotAt[1..n]与s.positionOf互为逆映射，且s.sortedWidths[p - 1]为位置p上车位的宽度，非降序排列。
+     * - 在两次状态改变之间，对于每个位置p，s.tree[p]等于位置(p - lowbit(p), p]中在s.freeLots里空闲的车位的个数。
+     */
+
+    /**
+     * 为一组车位建立抽样结构，按`freeLots`中当前的占用情况初始化计数。
+     *
+     * @param lots     车位列表，不能为null。
+     * @param freeLots 同一组车位的占用情况，不能为null。
+     */
+    public FreeLotSampler(List<Lot> lots, FreeLotIndex freeLots) {
+        int n = lots.size();
+        // 将(宽度, 下标)打包成long排序，避免装箱和比较器
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) lots.get(i).getWidth() << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        sortedWidths = new int[n];
+        lotAt = new int[n + 1];
+        positionOf = new int[n];
+        tree = new int[n + 1];
+        this.freeLots = freeLots;
+        for (int p = 1; p <= n; p++) {
+            int lotIndex = (int) packed[p - 1];
+            sortedWidths[p - 1] = (int) (packed[p - 1] >>> 32);
+            lotAt[p] = lotIndex;
+            positionOf[lotIndex] = p;
+        }
+        // 以O(N)建立树状数组
+        for (int p = 1; p <= n; p++) {
+            if (freeLots.isFree(lotAt[p])) {
+                tree[p] += 1;
+            }
+            int parent = p + (p & -p);
+            if (parent <= n) {
+                tree[parent] += tree[p];
+            }
+        }
+    }
+
+    /**
+     * 在车位于FreeLotIndex中由空闲变为占用之后调用，同步计数。
+     *
+     * @param lotIndex 车位下标。
+     */
+    public void occupy(int lotIndex) {
+        assert !freeLots.isFree(lotIndex) : "车位应先在FreeLotIndex中被占用。";
+        add(positionOf[lotIndex], -1);
+    }
+
+    /**
+     * 在车位于FreeLotIndex中由占用变为空闲之后调用，同步计数。
+     *
+     * @param lotIndex 车位下标。
+     */
+    public void release(int lotIndex) {
+        assert freeLots.isFree(lotIndex) : "车位应先在FreeLotIndex中被释放。";
+        add(positionOf[lotIndex], 1);
+    }
+
+    /**
+     * @param width 车位的最小宽度。
+     * @return 宽度不小于`width`的空闲车位数。
+     */
+    public int countFree(int width) {
+        return prefix(sortedWidths.length) - prefix(firstPositionOfWidth(width) - 1);
+    }
+
+    /**
+     * 从宽度不小于`width`的空闲车位中均匀随机地抽取一个。
+     *
+     * @param width  车位的最小宽度。
+     * @param random 随机数来源，不能为null。
+     * @return 被抽中车位的下标；若没有满足条件的车位，则返回-1。
+     */
+    public int sample(int width, SplittableRandom random) {
+        int before = prefix(firstPositionOfWidth(width) - 1);
+        int count = prefix(sortedWidths.length) - before;
+        if (count == 0) {
+            return -1;
+        }
+        return lotAt[findKth(before + 1 + random.nextInt(count))];
+    }
+
+    /**
+     * 返回第一个宽度不小于`width`的位置（从1开始）；若不存在，则返回n + 1。
+     */
+    private int firstPositionOfWidth(int width) {
+        int lo = 0;
+        int hi = sortedWidths.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedWidths[mid] < width) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo + 1;
+    }
+
+    private void add(int position, int delta) {
+        for (int p = position; p < tree.length; p += p & -p) {
+            tree[p] += delta;
+        }
+    }
+
+    /**
+     * 返回位置[1, position]中空闲车位的个数。
+     */
+    private int prefix(int position) {
+        int sum = 0;
+        for (int p = position; p > 0; p -= p & -p) {
+            sum += tree[p];
+        }
+        return sum;
+    }
+
+    /**
+     * 返回第k个（从1开始）空闲车位的位置，要求1 <= k <= 空闲车位总数。
+     */
+    private int findKth(int k) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < k) {
+                position = next;
+                k -= tree[next];
+            }
+        }
+        return position + 1;
+    }
+}
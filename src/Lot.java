@@ -27,10 +27,29 @@ public class Lot {
 
     private int number;
     private int width;
+    private int x; // 车位的平面坐标，未指定时为原点
+    private int y;
+    private int level; // 车位所在楼层，未指定时为0
 
     public Lot(int num, int width) {
+        this(num, width, 0, 0, 0);
+    }
+
+    /**
+     * 创建一个带有位置信息的车位。位置只用于查找离入口最近的车位，不影响车位的相等性。
+     *
+     * @param num   车位编号。
+     * @param width 车位宽度。
+     * @param x     车位的x坐标。
+     * @param y     车位的y坐标。
+     * @param level 车位所在楼层。
+     */
+    public Lot(int num, int width, int x, int y, int level) {
         this.number = num;
         this.width = width;
+        this.x = x;
+        this.y = y;
+        this.level = level;
     }
 
     public int getWidth() {
@@ -40,4 +59,16 @@ public class Lot {
     public int getNumber() {
         return number;
     }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getLevel() {
+        return level;
+    }
 }
@@ -0,0 +1,174 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * 存放在堆外内存中的定长位图，第i位为1表示第i个车位被占用。
+ * <p>
+ * 位图以{@link ByteBuffer#allocateDirect(int)}分配，按64位的字存取：查找下一个空闲或被占用的车位时
+ * 逐字扫描，跳过全满或全空的字；被占用的总数在每次修改时增量维护，也可以用{@link Long#bitCount(long)}重新统计。
+ * 即使有数百万个车位，位图也只占用很少的内存，且不会增加垃圾回收的负担。
+ */
+public class OccupancyBitmap {
+    // Rep
+    private final LongBuffer words; // 堆外的字，第i位位于words.get(i >>> 6)的第(i & 63)位
+    private final int size; // 位数
+    private int cardinality = 0; // 为1的位数
+
+    /**
+     * Abstraction Function (AF):
+     * AF(b) = 一个长度为b.size的位序列，第i位等于(b.words.get(i >>> 6) >>> (i & 63)) & 1。
+     * <p>
+     * Representation Invariant (RI):
+     * - b.size >= 0，b.words.capacity() == ceil(b.size / 64)。
+     * - 第b.size位及之后的位始终为0。
+     * - b.cardinality等于所有字的bitCount之和。
+     */
+
+    /**
+     * 创建一个所有位均为0的位图。
+     *
+     * @param size 位数，不能为负数。
+     * @throws IllegalArgumentException 如果`size`为负数。
+     */
+    public OccupancyBitmap(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size of a bitmap cannot be negative.");
+        }
+        this.size = size;
+        int wordCount = (size + 63) >>> 6;
+        this.words = ByteBuffer.allocateDirect(wordCount * Long.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+        checkRep();
+    }
+
+    /**
+     * 检查表示不变量，只在启用断言时逐字扫描。
+     */
+    private void checkRep() {
+        assert cardinality == countOnes() : "增量维护的计数应与逐字统计的结果一致。";
+        assert (size & 63) == 0 || (words.get(size >>> 6) >>> (size & 63)) == 0 : "第size位及之后的位应为0。";
+    }
+
+    /**
+     * @return 位数。
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i 位的下标，0 <= i < size()。
+     * @return 第i位是否为1。
+     */
+    public boolean get(int i) {
+        checkIndex(i);
+        return (words.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /**
+     * 将第i位置为1。
+     *
+     * @param i 位的下标，0 <= i < size()。
+     */
+    public void set(int i) {
+        checkIndex(i);
+        long word = words.get(i >>> 6);
+        long updated = word | (1L << i);
+        if (updated != word) {
+            words.put(i >>> 6, updated);
+            cardinality++;
+        }
+        checkRep();
+    }
+
+    /**
+     * 将第i位置为0。
+     *
+     * @param i 位的下标，0 <= i < size()。
+     */
+    public void clear(int i) {
+        checkIndex(i);
+        long word = words.get(i >>> 6);
+        long updated = word & ~(1L << i);
+        if (updated != word) {
+            words.put(i >>> 6, updated);
+            cardinality--;
+        }
+        checkRep();
+    }
+
+    /**
+     * @return 为1的位数。
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * 逐字统计为1的位数，不使用增量维护的计数。
+     *
+     * @return 为1的位数。
+     */
+    public int countOnes() {
+        int count = 0;
+        for (int w = 0; w < words.capacity(); w++) {
+            count += Long.bitCount(words.get(w));
+        }
+        return count;
+    }
+
+    /**
+     * 返回从`from`开始（包含）的第一个为1的位。
+     *
+     * @param from 起始下标，不能为负数。
+     * @return 第一个为1的位的下标；若不存在，则返回-1。
+     */
+    public int nextSet(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words.get(w) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.capacity()) {
+                return -1;
+            }
+            word = words.get(w);
+        }
+    }
+
+    /**
+     * 返回从`from`开始（包含）的第一个为0的位。
+     *
+     * @param from 起始下标，不能为负数。
+     * @return 第一个为0的位的下标；若不存在，则返回-1。
+     */
+    public int nextClear(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = ~words.get(w) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return (i < size) ? i : -1;
+            }
+            if (++w == words.capacity()) {
+                return -1;
+            }
+            word = ~words.get(w);
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Bit index " + i + " is out of range [0, " + size + ").");
+        }
+    }
+}
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.List;
 import java.util.Map;
 
 public interface ParkingField {
@@ -39,6 +42,21 @@ public interface ParkingField {
         return new ConcreteParkingField(lots);
     }
 
+    /**
+     * 创建一个新的停车场对象，车位可以带有位置信息。
+     * <p>
+     * 与{@link #create(Map)}相同，但车位由调用者直接给出，因此可以携带坐标和楼层，
+     * 供{@link #parkingNearest(String, int, int, int, int)}查找离入口最近的车位。
+     *
+     * @param lots 停车场的车位列表，大小必须大于或等于5，车位编号和宽度都应为正整数，且编号不能重复。
+     * @return ParkingField 返回一个新初始化的ParkingField对象，所有车位均为空。
+     * @throws IllegalArgumentException 如果`lots`的大小小于5，或者任何车位的编号或宽度不是正整数，或者编号有重复。
+     * @throws NullPointerException     如果`lots`或其中的元素为null，则抛出此异常。
+     */
+    public static ParkingField createWithLocations(List<Lot> lots) throws Exception {
+        return new ConcreteParkingField(lots);
+    }
+
     /**
      * 将指定车辆停放在停车场的特定停车位上。
      * <p>
@@ -85,6 +103,28 @@ public interface ParkingField {
      */
     public void parking(String plate, int width) throws Exception; // mutator, 不指定车位, 随机选择车位
 
+    /**
+     * 为车辆分配离入口最近的、宽度足够的空闲车位。
+     * <p>
+     * 距离按车位和入口在(x, y, level)三维空间中的欧氏距离计算；没有位置信息的车位视为位于原点。
+     * 成功执行后，车辆停在被选中的车位上，其他车位的状态保持不变。
+     *
+     * @param plate 要停进来的车辆的车牌号，不能为空（not null）且不为空字符串。
+     * @param width 车辆的宽度，必须是正整数。
+     * @param x 入口的x坐标。
+     * @param y 入口的y坐标。
+     * @param level 入口所在的楼层。
+     * @return int 分配给该车辆的车位编号。
+     *
+     * @throws IllegalArgumentException 如果满足以下任一条件:
+     *      - `plate`为空（null或空字符串）
+     *      - `width`不是正整数。
+     * @throws IllegalStateException 如果满足以下任一条件:
+     *      - `plate`对应的车辆已经停在停车场中，
+     *      - 停车场中没有足够宽的空闲车位可供该车辆停放。
+     */
+    public int parkingNearest(String plate, int width, int x, int y, int level) throws Exception;
+
     /**
      * 处理车辆驶离停车场的操作，并计算本次停车的费用。
      * <p>
@@ -101,6 +141,65 @@ public interface ParkingField {
      */
     public double depart(String plate) throws Exception;
 
+    /**
+     * 查询车辆若此刻离场需要支付的费用，但不执行驶离操作。
+     * <p>
+     * 费用的计算规则与{@link #depart(String)}相同：每半小时收费10元，不足半小时的部分按半小时计算。
+     * 查询不改变停车场的状态，车辆仍停在原来的车位上。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return double 截至此刻的停车费用。
+     *
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException 如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    public double quoteFee(String plate);
+
+    /**
+     * 查询在场车辆所停车位的编号。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return int 车辆所停车位的编号。
+     *
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException 如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    public int lotOf(String plate);
+
+    /**
+     * 查询在场车辆本次停车的入场时间。
+     *
+     * @param plate 车辆的车牌号，必须为非空字符串。
+     * @return Calendar 入场时间的副本。
+     *
+     * @throws IllegalArgumentException 如果`plate`为空字符串或null。
+     * @throws IllegalStateException 如果车牌号为`plate`的车辆未停在本停车场中。
+     */
+    public Calendar parkedSince(String plate);
+
+    /**
+     * 查询某车辆在时间段[from, to)内入场、且已经结束的所有停车记录。
+     *
+     * @param plate 车牌号，不能为null。
+     * @param from 时间段的起点（包含），不能为null。
+     * @param to 时间段的终点（不包含），不能为null。
+     * @return List<ArchivedSession> 按入场时间排序的停车记录的不可变副本；没有符合条件的记录时返回空列表。
+     *
+     * @throws NullPointerException 如果任一参数为null。
+     */
+    public List<ArchivedSession> history(String plate, Calendar from, Calendar to);
+
+    /**
+     * 查询在时间段[from, to)内入场、且已经结束的所有停车记录。
+     *
+     * @param from 时间段的起点（包含），不能为null。
+     * @param to 时间段的终点（不包含），不能为null。
+     * @return List<ArchivedSession> 符合条件的停车记录的不可变副本；没有符合条件的记录时返回空列表。
+     *
+     * @throws NullPointerException 如果任一参数为null。
+     */
+    public List<ArchivedSession> sessionsBetween(Calendar from, Calendar to);
+
     /**
      * 获取停车场中每个车位的当前状态。
      *
@@ -163,4 +262,37 @@ public interface ParkingField {
      */
     int getLotWidth(int num) throws IllegalArgumentException;
 
+    /**
+     * 将停车场的当前状态以文本形式写入`out`，格式与{@link Object#toString()}返回的字符串完全相同。
+     * <p>
+     * 此方法不创建中间字符串，也不使用{@link String#format}，适合高频刷新的显示屏。
+     * 如需写入{@link java.nio.ByteBuffer}，可使用{@link ByteBufferAppendable}包装该缓冲区。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    void renderText(Appendable out) throws IOException;
+
+    /**
+     * 将停车场的当前状态以CSV形式写入`out`。
+     * <p>
+     * 第一行为表头"number,width,plate"，之后每个车位占一行，依次为车位编号、宽度和车牌号；
+     * 空闲车位的车牌号字段为空。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    void renderCsv(Appendable out) throws IOException;
+
+    /**
+     * 将停车场的当前状态以紧凑的JSON形式写入`out`。
+     * <p>
+     * 格式示例：{"total":5,"occupied":1,"lots":[{"number":1,"width":200,"plate":"AB001"},...]}，
+     * 空闲车位的plate为空字符串。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    void renderJson(Appendable out) throws IOException;
+
 }
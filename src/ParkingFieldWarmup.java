@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 启动预热：在临时停车场上反复执行停车、报价、驶离、状态和历史查询，
+ * 使这些热点路径在真实流量到来之前完成类加载和JIT编译。
+ * 每轮分别预热{@link ConcreteParkingField}、包装它的{@link ConcurrentParkingField}，
+ * 以及{@link AsyncParkingField}的提交、写线程和future的结束路径。
+ * <p>
+ * 本类也可以直接运行，用于生成AppCDS类数据归档，让之后的启动跳过类的加载和校验：
+ * <pre>
+ *   java -XX:ArchiveClassesAtExit=parking.jsa -cp out ParkingFieldWarmup
+ *   java -XX:SharedArchiveFile=parking.jsa -cp out Main
+ * </pre>
+ * 预热不会影响任何真实的停车场。
+ */
+public class ParkingFieldWarmup {
+    private static final int LOTS = 64; // 临时停车场的车位数
+    private static final int DEFAULT_ROUNDS = 200;
+    private static final int ASYNC_BATCH_SIZE = 16;
+
+    private ParkingFieldWarmup() {
+    }
+
+    /**
+     * 执行预热。
+     *
+     * @param rounds 预热的轮数，每轮在每种停车场上停满并清空一次，必须是正整数。
+     * @throws IllegalArgumentException 如果`rounds`不是正整数。
+     */
+    public static void warmUp(int rounds) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("The number of rounds must be a positive integer.");
+        }
+        List<Lot> lots = new ArrayList<>(LOTS);
+        for (int i = 0; i < LOTS; i++) {
+            lots.add(new Lot(i + 1, 2 + i % 3, i % 8, i / 8, i % 2));
+        }
+        String[] plates = new String[LOTS];
+        for (int i = 0; i < LOTS; i++) {
+            plates[i] = "WARMUP" + i;
+        }
+        StringBuilder out = new StringBuilder();
+
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots), ASYNC_BATCH_SIZE);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                exercise(new ConcreteParkingField(lots), plates, round, out);
+                exercise(new ConcurrentParkingField(new ConcreteParkingField(lots)), plates, round, out);
+                exercise(async, plates);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Warm-up failed.", e);
+        } finally {
+            async.close();
+        }
+    }
+
+    /**
+     * 在`field`上停满并清空一次，期间执行各种查询。
+     */
+    private static void exercise(ParkingField field, String[] plates, int round, StringBuilder out) throws Exception {
+        // 前一半车辆指定车位，后一半由停车场自动分配
+        for (int i = 0; i < LOTS / 2; i++) {
+            field.parking(plates[i], 2, i + 1);
+            field.quoteFee(plates[i]);
+        }
+        for (int i = LOTS / 2; i < LOTS; i++) {
+            if (i % 2 == 0) {
+                field.parking(plates[i], 2);
+            } else {
+                field.parkingNearest(plates[i], 2, i % 8, i / 8, i % 2);
+            }
+            field.quoteFee(plates[i]);
+            field.lotOf(plates[i]);
+        }
+        field.isEmpty();
+        field.getLotWidth(1 + round % LOTS);
+        field.isLotInParkingField(1 + round % LOTS, 2);
+        field.status();
+        out.setLength(0);
+        field.renderText(out);
+        field.renderJson(out);
+        for (int i = 0; i < LOTS; i++) {
+            field.depart(plates[i]);
+        }
+        Calendar from = Calendar.getInstance();
+        from.add(Calendar.HOUR_OF_DAY, -1);
+        Calendar to = Calendar.getInstance();
+        to.add(Calendar.HOUR_OF_DAY, 1);
+        field.history(plates[round % LOTS], from, to);
+        field.sessionsBetween(from, to);
+    }
+
+    /**
+     * 通过异步前端停满并清空一次，等待所有请求完成。
+     */
+    private static void exercise(AsyncParkingField async, String[] plates) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(2 * LOTS);
+        for (int i = 0; i < LOTS; i++) {
+            if (i % 2 == 0) {
+                futures.add(async.parkAsync(plates[i], 2));
+            } else {
+                futures.add(async.parkNearestAsync(plates[i], 2, i % 8, i / 8, i % 2));
+            }
+        }
+        for (int i = 0; i < LOTS; i++) {
+            futures.add(async.departAsync(plates[i]));
+        }
+        for (CompletableFuture<?> future : futures) {
+            future.join();
+        }
+    }
+
+    public static void main(String[] args) {
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        warmUp(rounds);
+    }
+}
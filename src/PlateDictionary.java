@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 车牌字典：把车牌字符串驻留（intern）为稳定的整数编号。
+ * <p>
+ * 同一个车牌在字典的生命周期内总是映射到同一个编号，编号从0开始连续分配。
+ * 字典同时缓存每个车牌最近一次使用的Car对象，回头客以相同宽度再次入场时直接复用，不再分配新对象。
+ * <p>
+ * 字典只由一个写线程修改；{@link #lookup(String)}也可以在其他线程中与写线程并发调用，不需要加锁。
+ */
+public class PlateDictionary {
+    // Rep
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>(); // 车牌 → 编号，可以被并发读取
+    private final List<String> plates = new ArrayList<>(); // 编号 → 车牌
+    private final List<Car> cars = new ArrayList<>(); // 编号 → 最近一次使用的Car
+
+    /**
+     * Abstraction Function (AF):
+     * AF(d) = 一个车牌字典，其中车牌d.plates.get(i)的编号为i，d.cars.get(i)为该车牌最近一次入场使用的车辆。
+     * <p>
+     * Representation Invariant (RI):
+     * - d.ids.size() == d.plates.size() == d.cars.size()
+     * - 对于每个i，d.ids.get(d.plates.get(i)) == i，且d.cars.get(i).getId() == i。
+     */
+
+    /**
+     * 返回车牌对应的编号；若车牌尚未出现过，则为其分配一个新编号。
+     *
+     * @param plate 车牌号，不能为null。
+     * @return 车牌的编号，为非负整数。
+     */
+    public int intern(String plate) {
+        Integer id = ids.get(plate);
+        if (id != null) {
+            return id;
+        }
+        int newId = plates.size();
+        ids.put(plate, newId);
+        plates.add(plate);
+        cars.add(null);
+        return newId;
+    }
+
+    /**
+     * 查找车牌对应的编号，不分配新编号。可以与写线程并发调用。
+     *
+     * @param plate 车牌号。
+     * @return 车牌的编号；若车牌从未出现过，则返回-1。
+     */
+    public int lookup(String plate) {
+        Integer id = ids.get(plate);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * 返回编号对应的车牌号。
+     *
+     * @param id 由{@link #intern(String)}返回的编号。
+     * @return 车牌号。
+     * @throws IndexOutOfBoundsException 如果编号不存在。
+     */
+    public String plateOf(int id) {
+        return plates.get(id);
+    }
+
+    /**
+     * 返回具有指定车牌和宽度的车辆。若该车牌上次使用的车辆宽度相同，则直接复用该对象。
+     *
+     * @param plate 车牌号，不能为null。
+     * @param width 车辆宽度。
+     * @return 具有该车牌编号和宽度的Car对象。
+     */
+    public Car carOf(String plate, int width) {
+        int id = intern(plate);
+        Car car = cars.get(id);
+        if (car == null || car.getWidth() != width) {
+            car = new Car(id, plates.get(id), width);
+            cars.set(id, car);
+        }
+        return car;
+    }
+
+    /**
+     * 返回字典中已驻留的车牌数量。
+     *
+     * @return 车牌数量。
+     */
+    public int size() {
+        return plates.size();
+    }
+}
@@ -1,17 +1,33 @@
 import java.util.Calendar;
 
 public class Record {
+    private static final long BILLING_PERIOD_MILLIS = 30L * 60 * 1000; // 计费周期：半小时
+    private static final double FEE_PER_PERIOD = 10; // 每个计费周期的费用
+
     private final Car car;
     private final Lot lot;
     private final Calendar timeIn = Calendar.getInstance();
+    private final long timeInMillis = timeIn.getTimeInMillis();
     private Calendar timeOut = null;
     private double fee = 0;
+    private volatile long quotedPeriods = -1; // 最近一次报价计费的周期数，-1表示尚未报价
 
     public Record(Car car, Lot lot) {
         this.car = car;
         this.lot = lot;
     }
 
+    public Calendar getTimeIn() {
+        return (Calendar) timeIn.clone();
+    }
+
+    /**
+     * @return 入场时间的毫秒数，不复制Calendar对象。
+     */
+    public long getTimeInMillis() {
+        return timeInMillis;
+    }
+
     public Calendar getTimeOut() {
         return (timeOut == null) ? null : (Calendar) timeOut.clone();
     }
@@ -28,9 +44,57 @@ public class Record {
         this.timeOut = Calendar.getInstance();
     }
 
+    public double getFee() {
+        return fee;
+    }
+
+    /**
+     * 计算本次停车的费用：每半小时收费10元，不足半小时的部分按半小时计算。
+     *
+     * @return 本次停车的费用。
+     * @throws IllegalStateException 如果尚未设置离场时间。
+     */
     public double calcFee() {
-        fee = 2;
-        //TODO: calculate based on the difference between timeIn and timeOut
+        if (timeOut == null) {
+            throw new IllegalStateException("The record has no time out yet.");
+        }
+        fee = quoteFee(timeOut.getTimeInMillis());
         return fee;
     }
+
+    /**
+     * 计算假如在`now`时刻离场需要支付的费用，不修改记录。
+     * <p>
+     * 费用只在跨过计费周期的边界时变化，因此最近一次报价的周期数被缓存下来；
+     * 在下一个边界到来之前，重复报价以及最终的{@link #calcFee()}都直接使用缓存。
+     *
+     * @param now 报价时刻（毫秒）；早于入场时间时按入场时间计算。
+     * @return 截至`now`的停车费用。
+     */
+    public double quoteFee(long now) {
+        long periods = quotedPeriods;
+        // 缓存对(入场时间 + (periods - 1) * 周期, 入场时间 + periods * 周期]内的时刻有效
+        if (periods < 0 || now > timeInMillis + periods * BILLING_PERIOD_MILLIS
+                || (periods > 0 && now <= timeInMillis + (periods - 1) * BILLING_PERIOD_MILLIS)) {
+            periods = periodsBetween(timeInMillis, now);
+            quotedPeriods = periods;
+        }
+        return periods * FEE_PER_PERIOD;
+    }
+
+    /**
+     * 计算在`timeIn`时刻入场、在`now`时刻离场需要支付的费用，规则与{@link #calcFee()}相同。
+     *
+     * @param timeIn 入场时间（毫秒）。
+     * @param now    离场时间（毫秒）；早于入场时间时按入场时间计算。
+     * @return 停车费用。
+     */
+    public static double feeBetween(long timeIn, long now) {
+        return periodsBetween(timeIn, now) * FEE_PER_PERIOD;
+    }
+
+    private static long periodsBetween(long timeIn, long now) {
+        long elapsed = Math.max(0, now - timeIn);
+        return (elapsed + BILLING_PERIOD_MILLIS - 1) / BILLING_PERIOD_MILLIS;
+    }
 }
@@ -0,0 +1,225 @@
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可以随机查询的磁盘归档：按车牌和入场时间查询已经写入{@link SessionArchiveWriter}归档文件的停车记录。
+ * <p>
+ * 打开归档时顺序读取一遍文件，建立两张表：
+ * <ul>
+ *     <li>块表：每个块在文件中的偏移量及其第一条记录的序号，用于由序号定位块；</li>
+ *     <li>{@link SessionIndex}：以记录在归档中的序号为键，按车牌和按时间桶索引所有记录。</li>
+ * </ul>
+ * 之后的查询先在索引中找到记录的序号，再只读取并解压这些序号所在的块，代价与结果涉及的块数成正比，与归档大小无关。
+ * <p>
+ * 打开后归档和索引都不再变化，查询可以在多个线程中并发进行。
+ */
+public class SessionArchive implements Closeable {
+    private static final long BUCKET_MILLIS = 60L * 60 * 1000; // 按小时划分记录
+
+    // Rep
+    private final FileChannel channel; // 只以绝对位置读取，不改变通道的位置
+    private final long[] blockOffsets; // 块 → 块头在文件中的偏移量
+    private final long[] blockOrdinals; // 块 → 块中第一条记录的序号，严格升序
+    private final PlateDictionary plates; // 车牌 → 索引中的车牌编号
+    private final SessionIndex index; // 以序号索引归档中的所有记录
+    private final long size; // 记录总数
+
+    /**
+     * Abstraction Function (AF):
+     * AF(a) = 归档文件a.channel中的所有记录，第k个块的记录序号为a.blockOrdinals[k]起的连续整数。
+     * <p>
+     * Representation Invariant (RI):
+     * - a.blockOffsets.length == a.blockOrdinals.length，两者都严格升序，a.blockOrdinals[0] == 0（若有块）。
+     * - a.index中恰好有a.size条记录，其序号都在[0, a.size)内，车牌编号来自a.plates。
+     */
+
+    private SessionArchive(FileChannel channel, long[] blockOffsets, long[] blockOrdinals,
+                           PlateDictionary plates, SessionIndex index, long size) {
+        this.channel = channel;
+        this.blockOffsets = blockOffsets;
+        this.blockOrdinals = blockOrdinals;
+        this.plates = plates;
+        this.index = index;
+        this.size = size;
+    }
+
+    /**
+     * 打开一个归档文件并建立索引。
+     *
+     * @param path 归档文件的路径，不能为null。
+     * @return 可以查询的归档；使用完毕后应关闭。
+     * @throws IOException 如果文件不是归档文件、已损坏或读取时发生错误。
+     */
+    public static SessionArchive open(Path path) throws IOException {
+        if (path == null) {
+            throw new NullPointerException("The archive path cannot be null.");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return load(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static SessionArchive load(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SessionArchiveWriter.HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != SessionArchiveWriter.MAGIC) {
+            throw new IOException("Not a session archive.");
+        }
+        int version = header.getInt(Integer.BYTES);
+        if (version != SessionArchiveWriter.VERSION) {
+            throw new IOException("Unsupported session archive version: " + version);
+        }
+
+        // 顺序读取一遍文件，逐块解码并建立索引，内存占用与归档大小无关
+        PlateDictionary plates = new PlateDictionary();
+        SessionIndex index = new SessionIndex(BUCKET_MILLIS);
+        long[] offsets = new long[16];
+        long[] ordinals = new long[16];
+        int blocks = 0;
+        long offset = SessionArchiveWriter.HEADER_BYTES;
+        long ordinal = 0;
+        List<ArchivedSession> sessions = new ArrayList<>();
+        while (offset < channel.size()) {
+            byte[] block = readBlock(channel, offset);
+            if (blocks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, blocks * 2);
+                ordinals = Arrays.copyOf(ordinals, blocks * 2);
+            }
+            offsets[blocks] = offset;
+            ordinals[blocks] = ordinal;
+            blocks++;
+            sessions.clear();
+            decode(block, ordinal, sessions);
+            for (ArchivedSession session : sessions) {
+                index.add(session.getOrdinal(), plates.intern(session.getPlate()), session.getTimeIn());
+            }
+            ordinal += sessions.size();
+            offset += block.length;
+        }
+        return new SessionArchive(channel, Arrays.copyOf(offsets, blocks), Arrays.copyOf(ordinals, blocks),
+                plates, index, ordinal);
+    }
+
+    /**
+     * @return 归档中的记录总数。
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 返回某车辆在时间段[from, to)内入场的所有记录，语义同{@link ParkingField#history}。
+     *
+     * @param plate 车牌号，不能为null。
+     * @param from  时间段的起点（毫秒，包含）。
+     * @param to    时间段的终点（毫秒，不包含）。
+     * @return 按入场时间排序的记录，序号为记录在归档中的位置；没有符合条件的记录时返回空列表。
+     * @throws IOException 如果读取或解压块时发生错误。
+     */
+    public List<ArchivedSession> history(String plate, long from, long to) throws IOException {
+        if (plate == null) {
+            throw new NullPointerException("The plate cannot be null.");
+        }
+        int plateId = plates.lookup(plate);
+        return sessionsAt((plateId < 0) ? new long[0] : index.sessionsOf(plateId, from, to));
+    }
+
+    /**
+     * 返回在时间段[from, to)内入场的所有记录，语义同{@link ParkingField#sessionsBetween}。
+     *
+     * @param from 时间段的起点（毫秒，包含）。
+     * @param to   时间段的终点（毫秒，不包含）。
+     * @return 按入场的小时排序、同一小时内按写入归档的顺序排列的记录；没有符合条件的记录时返回空列表。
+     * @throws IOException 如果读取或解压块时发生错误。
+     */
+    public List<ArchivedSession> sessionsBetween(long from, long to) throws IOException {
+        return sessionsAt(index.sessionsBetween(from, to));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 按`ordinals`的顺序取回记录，每个涉及的块只读取和解压一次。
+     */
+    private List<ArchivedSession> sessionsAt(long[] ordinals) throws IOException {
+        List<ArchivedSession> result = new ArrayList<>(ordinals.length);
+        Map<Integer, List<ArchivedSession>> decoded = new HashMap<>();
+        for (long ordinal : ordinals) {
+            int k = blockOf(ordinal);
+            List<ArchivedSession> block = decoded.get(k);
+            if (block == null) {
+                block = new ArrayList<>();
+                decode(readBlock(channel, blockOffsets[k]), blockOrdinals[k], block);
+                decoded.put(k, block);
+            }
+            result.add(block.get((int) (ordinal - blockOrdinals[k])));
+        }
+        return result;
+    }
+
+    /**
+     * 返回序号为`ordinal`的记录所在的块。
+     */
+    private int blockOf(long ordinal) {
+        int k = Arrays.binarySearch(blockOrdinals, ordinal);
+        return (k >= 0) ? k : -k - 2;
+    }
+
+    /**
+     * 读取从`offset`开始的一个完整的块（块头和压缩的数据）。
+     */
+    private static byte[] readBlock(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SessionArchiveWriter.BLOCK_HEADER_BYTES);
+        readFully(channel, header, offset);
+        int count = header.getInt(0);
+        int compressedLength = header.getInt(SessionArchiveWriter.BLOCK_HEADER_BYTES - Integer.BYTES);
+        if (count <= 0 || compressedLength < 0
+                || compressedLength > channel.size() - offset - SessionArchiveWriter.BLOCK_HEADER_BYTES) {
+            throw new IOException("Corrupted session archive block.");
+        }
+        ByteBuffer block = ByteBuffer.allocate(SessionArchiveWriter.BLOCK_HEADER_BYTES + compressedLength);
+        readFully(channel, block, offset);
+        return block.array();
+    }
+
+    /**
+     * 解码一个块中的所有记录，按顺序加入`sessions`。
+     */
+    private static void decode(byte[] block, long firstOrdinal, List<ArchivedSession> sessions) throws IOException {
+        try (SessionArchiveReader reader = new SessionArchiveReader(
+                new ByteArrayInputStream(block), Long.MIN_VALUE, Long.MAX_VALUE, firstOrdinal)) {
+            while (reader.hasNext()) {
+                sessions.add(reader.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated session archive.");
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 按顺序流式读取由{@link SessionArchiveWriter}写出的归档文件。
+ * <p>
+ * 读取器每次只解压一个块，因此内存占用与归档大小无关。若指定了入场时间的范围，
+ * 读取器会根据块头中的最早、最晚入场时间跳过整块不相关的数据，不解压这些块。
+ * 每条记录的序号是它在整个归档中的位置，与是否跳过块无关，可用作{@link SessionIndex}中的序号。
+ */
+public class SessionArchiveReader implements Iterator<ArchivedSession>, Closeable {
+    private static final int MIN_RECORD_BYTES = 6 + Double.BYTES; // 每条记录至少6个单字节的varint和一个double
+    private static final int MAX_DEFLATE_RATIO = 1032; // Deflate的最大压缩比
+
+    // Rep
+    private final DataInputStream in;
+    private final long from; // 入场时间的下界（包含）
+    private final long to; // 入场时间的上界（不包含）
+    private final Inflater inflater = new Inflater();
+    private long nextOrdinal = 0; // 下一个块中第一条记录的序号
+    private ArchivedSession next = null; // 预读的下一条记录
+
+    // 当前块解码后的各列
+    private long blockOrdinal; // 当前块中第一条记录的序号
+    private int blockCount = 0;
+    private int position = 0; // 当前块中下一条待检查的记录
+    private String[] plates = new String[0];
+    private int[] plateCodes = new int[0];
+    private int[] carWidths = new int[0];
+    private int[] lotNumbers = new int[0];
+    private int[] lotWidths = new int[0];
+    private long[] timeIns = new long[0];
+    private long[] durations = new long[0];
+    private double[] fees = new double[0];
+
+    /**
+     * Abstraction Function (AF):
+     * AF(r) = 归档中入场时间位于[r.from, r.to)内、尚未被返回的记录序列，
+     * 依次为r.next（若不为null）、当前块中从r.position开始的记录，以及r.in中剩余的块。
+     * <p>
+     * Representation Invariant (RI):
+     * - 0 <= r.position <= r.blockCount
+     * - r.next为null或其入场时间位于[r.from, r.to)内。
+     */
+
+    /**
+     * 创建一个读取整个归档的读取器。
+     *
+     * @param in 归档的输入流，不能为null。关闭读取器时也会关闭该流。
+     * @throws IOException 如果文件头不合法或读取时发生错误。
+     */
+    public SessionArchiveReader(InputStream in) throws IOException {
+        this(in, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 创建一个只读取入场时间位于[from, to)内的记录的读取器。
+     *
+     * @param in   归档的输入流，不能为null。关闭读取器时也会关闭该流。
+     * @param from 入场时间的下界（毫秒，包含）。
+     * @param to   入场时间的上界（毫秒，不包含）。
+     * @throws IOException 如果文件头不合法或读取时发生错误。
+     */
+    public SessionArchiveReader(InputStream in, long from, long to) throws IOException {
+        this(in, from, to, 0);
+        if (this.in.readInt() != SessionArchiveWriter.MAGIC) {
+            throw new IOException("Not a session archive.");
+        }
+        int version = this.in.readInt();
+        if (version != SessionArchiveWriter.VERSION) {
+            throw new IOException("Unsupported session archive version: " + version);
+        }
+    }
+
+    /**
+     * 创建一个从块的边界开始读取的读取器，输入中没有文件头。供{@link SessionArchive}随机读取单个块使用。
+     *
+     * @param in           从某个块头开始的输入流，不能为null。
+     * @param from         入场时间的下界（毫秒，包含）。
+     * @param to           入场时间的上界（毫秒，不包含）。
+     * @param firstOrdinal 输入中第一条记录在整个归档中的序号。
+     */
+    SessionArchiveReader(InputStream in, long from, long to, long firstOrdinal) {
+        if (in == null) {
+            throw new NullPointerException("The input stream cannot be null.");
+        }
+        this.in = new DataInputStream(in);
+        this.from = from;
+        this.to = to;
+        this.nextOrdinal = firstOrdinal;
+    }
+
+    /**
+     * @throws UncheckedIOException 如果读取或解压下一个块时发生错误。
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * @throws NoSuchElementException 如果没有更多记录。
+     * @throws UncheckedIOException   如果读取或解压下一个块时发生错误。
+     */
+    @Override
+    public ArchivedSession next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ArchivedSession result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /**
+     * 返回下一条入场时间位于[from, to)内的记录；没有更多记录时返回null。
+     */
+    private ArchivedSession advance() throws IOException {
+        while (true) {
+            while (position < blockCount) {
+                int i = position++;
+                if (timeIns[i] >= from && timeIns[i] < to) {
+                    return new ArchivedSession(blockOrdinal + i, plates[plateCodes[i]], carWidths[i],
+                            lotNumbers[i], lotWidths[i], timeIns[i], timeIns[i] + durations[i], fees[i]);
+                }
+            }
+            if (!readBlock()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 读取下一个与[from, to)相交的块，跳过不相交的块。没有更多块时返回false。
+     *
+     * @throws IOException 如果块头中的字段不合法（例如记录数或长度为负数、长度与记录数不相符），或块被截断。
+     */
+    private boolean readBlock() throws IOException {
+        while (true) {
+            int count;
+            try {
+                count = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            try {
+                long minIn = in.readLong();
+                long maxIn = in.readLong();
+                long minOut = in.readLong();
+                long maxOut = in.readLong();
+                int rawLength = in.readInt();
+                int compressedLength = in.readInt();
+                // 在分配任何缓冲区之前检查块头，损坏的长度不能导致巨大的分配
+                if (count <= 0 || count > SessionArchiveWriter.BLOCK_SIZE || minIn > maxIn || minOut > maxOut
+                        || compressedLength < 0 || rawLength < (long) count * MIN_RECORD_BYTES
+                        || rawLength > (long) compressedLength * MAX_DEFLATE_RATIO + 64) {
+                    throw corrupted(null);
+                }
+
+                long ordinal = nextOrdinal;
+                nextOrdinal += count;
+                if (maxIn < from || minIn >= to) {
+                    in.skipNBytes(compressedLength);
+                    continue;
+                }
+
+                byte[] compressed = new byte[compressedLength];
+                in.readFully(compressed);
+                decode(inflate(compressed, rawLength), count, minIn);
+                blockOrdinal = ordinal;
+                return true;
+            } catch (EOFException e) {
+                throw corrupted(e);
+            }
+        }
+    }
+
+    private static IOException corrupted(Throwable cause) {
+        return new IOException("Corrupted session archive block.", cause);
+    }
+
+    private byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, n, rawLength - n);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != rawLength) {
+                throw corrupted(null);
+            }
+        } catch (DataFormatException e) {
+            throw corrupted(e);
+        }
+        return raw;
+    }
+
+    /**
+     * 解码一个块的各列。长度、下标和数值都先与块中剩余的字节数或记录数比较，不合法时抛出IOException。
+     */
+    private void decode(byte[] raw, int count, long minIn) throws IOException {
+        try {
+            decodeColumns(new DataInputStream(new ByteArrayInputStream(raw)), count, minIn);
+        } catch (EOFException e) {
+            throw corrupted(e);
+        }
+    }
+
+    private void decodeColumns(DataInputStream columns, int count, long minIn) throws IOException {
+        int dictionarySize = readInt(columns, count); // 字典中只有块内用到的车牌
+        if (dictionarySize == 0) {
+            throw corrupted(null);
+        }
+        plates = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytes = new byte[readInt(columns, columns.available())];
+            columns.readFully(bytes);
+            plates[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (plateCodes.length < count) {
+            plateCodes = new int[count];
+            carWidths = new int[count];
+            lotNumbers = new int[count];
+            lotWidths = new int[count];
+            timeIns = new long[count];
+            durations = new long[count];
+            fees = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            plateCodes[i] = readInt(columns, dictionarySize - 1);
+        }
+        for (int i = 0; i < count; i++) {
+            carWidths[i] = readInt(columns, Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < count; i++) {
+            lotNumbers[i] = readInt(columns, Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < count; i++) {
+            lotWidths[i] = readInt(columns, Integer.MAX_VALUE);
+        }
+        long previous = minIn;
+        for (int i = 0; i < count; i++) {
+            long zigzag = readVarint(columns);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            timeIns[i] = previous;
+        }
+        for (int i = 0; i < count; i++) {
+            durations[i] = readVarint(columns);
+            if (durations[i] < 0) {
+                throw corrupted(null);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            fees[i] = columns.readDouble();
+        }
+        if (columns.available() != 0) {
+            throw corrupted(null);
+        }
+        blockCount = count;
+        position = 0;
+    }
+
+    /**
+     * 读取一个不大于`max`的非负varint。
+     */
+    private static int readInt(DataInputStream in, int max) throws IOException {
+        long value = readVarint(in);
+        if (value < 0 || value > max) {
+            throw corrupted(null);
+        }
+        return (int) value;
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw corrupted(null);
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * 将已结束的停车记录写入压缩的列式归档文件。
+ * <p>
+ * 文件以魔数和版本号开头，之后是若干个块，每块最多包含{@link #BLOCK_SIZE}条记录。每个块的格式为：
+ * <pre>
+ *   int     记录数
+ *   long    最早入场时间    long 最晚入场时间
+ *   long    最早离场时间    long 最晚离场时间
+ *   int     解压后的长度    int  压缩后的长度
+ *   byte[]  以Deflate压缩的各列
+ * </pre>
+ * 块头未压缩，读者可以根据时间范围直接跳过整个块。块内的数据按列存放，依次为：
+ * 块内车牌字典（车牌以UTF-8编码）、每条记录的车牌在字典中的下标、车辆宽度、车位编号、车位宽度、
+ * 入场时间（相对于前一条记录的差值，以zigzag编码）、停车时长、停车费用。
+ * 除停车费用外，所有整数都以变长整数（varint）编码。
+ * <p>
+ * 必须调用{@link #close()}才能写出最后一个块。
+ */
+public class SessionArchiveWriter implements Closeable {
+    static final int MAGIC = 0x504B5341; // "PKSA"
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 4096;
+    static final int HEADER_BYTES = 2 * Integer.BYTES; // 文件头：魔数和版本号
+    static final int BLOCK_HEADER_BYTES = 3 * Integer.BYTES + 4 * Long.BYTES; // 块头：记录数、四个时间和两个长度
+
+    // Rep
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater();
+    private final Map<String, Integer> dictionary = new HashMap<>(); // 当前块的车牌字典
+    private final String[] dictionaryPlates = new String[BLOCK_SIZE];
+    private final int[] plateCodes = new int[BLOCK_SIZE];
+    private final int[] carWidths = new int[BLOCK_SIZE];
+    private final int[] lotNumbers = new int[BLOCK_SIZE];
+    private final int[] lotWidths = new int[BLOCK_SIZE];
+    private final long[] timeIns = new long[BLOCK_SIZE];
+    private final long[] timeOuts = new long[BLOCK_SIZE];
+    private final double[] fees = new double[BLOCK_SIZE];
+    private int count = 0; // 当前块中的记录数
+    private boolean closed = false;
+
+    /**
+     * Abstraction Function (AF):
+     * AF(w) = 已写入w.out的块，加上当前块中的前w.count条记录（第i条的各字段分别位于各数组的下标i处）。
+     * <p>
+     * Representation Invariant (RI):
+     * - 0 <= w.count < BLOCK_SIZE
+     * - w.dictionary与w.dictionaryPlates[0, w.dictionary.size())互为逆映射。
+     * - 对于每个i < w.count，w.timeOuts[i] >= w.timeIns[i]。
+     */
+
+    /**
+     * 创建一个写入`out`的归档写入器，并写出文件头。
+     *
+     * @param out 目标输出流，不能为null。关闭写入器时也会关闭该流。
+     * @throws IOException 如果写出文件头时发生错误。
+     */
+    public SessionArchiveWriter(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("The output stream cannot be null.");
+        }
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    /**
+     * 写入一条已结束的停车记录。
+     *
+     * @param record 停车记录，不能为null，且必须已经结束。
+     * @throws IllegalArgumentException 如果`record`尚未结束。
+     * @throws IllegalStateException    如果写入器已关闭。
+     * @throws IOException              如果写出块时发生错误。
+     */
+    public void write(Record record) throws IOException {
+        if (record.getTimeOut() == null) {
+            throw new IllegalArgumentException("Only closed records can be archived.");
+        }
+        write(record.getCar().getPlate(), record.getCar().getWidth(),
+                record.getLot().getNumber(), record.getLot().getWidth(),
+                record.getTimeInMillis(), record.getTimeOut().getTimeInMillis(), record.getFee());
+    }
+
+    /**
+     * 写入一条以基本类型描述的已结束的停车记录。
+     *
+     * @throws IllegalArgumentException 如果`plate`为null，或`timeOut`早于`timeIn`，或宽度、编号为负数。
+     * @throws IllegalStateException    如果写入器已关闭。
+     * @throws IOException              如果写出块时发生错误。
+     */
+    public void write(String plate, int carWidth, int lotNumber, int lotWidth,
+                      long timeIn, long timeOut, double fee) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The archive writer is closed.");
+        }
+        if (plate == null || timeOut < timeIn || carWidth < 0 || lotNumber < 0 || lotWidth < 0) {
+            throw new IllegalArgumentException("Invalid session.");
+        }
+        Integer code = dictionary.get(plate);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.put(plate, code);
+            dictionaryPlates[code] = plate;
+        }
+        plateCodes[count] = code;
+        carWidths[count] = carWidth;
+        lotNumbers[count] = lotNumber;
+        lotWidths[count] = lotWidth;
+        timeIns[count] = timeIn;
+        timeOuts[count] = timeOut;
+        fees[count] = fee;
+        count++;
+        if (count == BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * 写出最后一个块并关闭底层输出流。重复调用无效果。
+     *
+     * @throws IOException 如果写出或关闭时发生错误。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flushBlock();
+            closed = true;
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        long minIn = Long.MAX_VALUE;
+        long maxIn = Long.MIN_VALUE;
+        long minOut = Long.MAX_VALUE;
+        long maxOut = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minIn = Math.min(minIn, timeIns[i]);
+            maxIn = Math.max(maxIn, timeIns[i]);
+            minOut = Math.min(minOut, timeOuts[i]);
+            maxOut = Math.max(maxOut, timeOuts[i]);
+        }
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(count * 16);
+        DataOutputStream columns = new DataOutputStream(raw);
+        writeVarint(columns, dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            byte[] bytes = dictionaryPlates[i].getBytes(StandardCharsets.UTF_8);
+            writeVarint(columns, bytes.length);
+            columns.write(bytes);
+        }
+        for (int i = 0; i < count; i++) {
+            writeVarint(columns, plateCodes[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            writeVarint(columns, carWidths[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            writeVarint(columns, lotNumbers[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            writeVarint(columns, lotWidths[i]);
+        }
+        long previous = minIn;
+        for (int i = 0; i < count; i++) {
+            long delta = timeIns[i] - previous;
+            writeVarint(columns, (delta << 1) ^ (delta >> 63)); // zigzag
+            previous = timeIns[i];
+        }
+        for (int i = 0; i < count; i++) {
+            writeVarint(columns, timeOuts[i] - timeIns[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            columns.writeDouble(fees[i]);
+        }
+        byte[] bytes = raw.toByteArray();
+        byte[] compressed = compress(bytes);
+
+        out.writeInt(count);
+        out.writeLong(minIn);
+        out.writeLong(maxIn);
+        out.writeLong(minOut);
+        out.writeLong(maxOut);
+        out.writeInt(bytes.length);
+        out.writeInt(compressed.length);
+        out.write(compressed);
+
+        count = 0;
+        dictionary.clear();
+        Arrays.fill(dictionaryPlates, null);
+    }
+
+    private byte[] compress(byte[] bytes) {
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 16);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            compressed.write(chunk, 0, n);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * 以变长整数写出一个非负整数：每个字节的低7位为数据，最高位表示后面是否还有字节。
+     */
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
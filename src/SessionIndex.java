@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 已结束停车记录的二级索引。
+ * <p>
+ * 索引本身不保存停车记录，只保存每条记录的序号（记录在其存储中的位置，可以是内存中的下标，
+ * 也可以是磁盘归档中的序号），由调用者根据序号取回记录。索引分为两部分：
+ * <ul>
+ *     <li>按车牌：车牌编号 → 按入场时间排序的序号列表，查询某车牌在某时间段内的记录只需二分查找；</li>
+ *     <li>按时间：以入场时间划分的时间桶 → 桶内记录的序号，查询某时间段内的所有记录只需访问相关的桶。</li>
+ * </ul>
+ * 时间均以毫秒表示，时间段均为左闭右开区间[from, to)，以入场时间为准。
+ * <p>
+ * 索引只由一个写线程修改，查询可以与之并发地在任意线程中进行，不需要加锁。每个序号列表都是不可变的快照，
+ * 写线程加入记录时发布一个新的快照：按顺序追加时新快照与旧快照共享数组（只写入旧快照范围之外的位置），
+ * 需要插入到中间时才复制数组。查询看到的是最近一次{@link #add(long, int, long)}返回前的状态。
+ */
+public class SessionIndex {
+    // Rep
+    private final long bucketMillis; // 时间桶的长度
+    private volatile Postings[] byPlate = new Postings[0]; // 车牌编号 → 该车牌的记录，没有记录时为null
+    private final ConcurrentNavigableMap<Long, Postings> byTime = new ConcurrentSkipListMap<>(); // 时间桶 → 桶内的记录
+    private volatile int size = 0; // 每次add()最后写入，查询先读取它，以看到此前的全部修改
+
+    /**
+     * Abstraction Function (AF):
+     * AF(s) = 一组已结束的停车记录，每条记录由其序号、车牌编号和入场时间描述。
+     * <p>
+     * Representation Invariant (RI):
+     * - s.bucketMillis > 0
+     * - s.byPlate中每个非null的Postings按入场时间非降序排列。
+     * - 已发布的Postings所覆盖的数组区间[0, size)不再被修改。
+     * - s.byTime中键为b的Postings中每条记录的入场时间t满足floorDiv(t, s.bucketMillis) == b。
+     * - s.size等于s.byPlate中所有记录的总数，也等于s.byTime中所有记录的总数。
+     */
+
+    /**
+     * 创建一个空索引。
+     *
+     * @param bucketMillis 时间桶的长度（毫秒），必须是正整数。
+     * @throws IllegalArgumentException 如果`bucketMillis`不是正整数。
+     */
+    public SessionIndex(long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("The bucket length must be a positive integer.");
+        }
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * 将一条已结束的停车记录加入索引。
+     * <p>
+     * 同一车牌的记录通常按入场时间顺序加入（同一辆车的两次停车不会重叠，按驶离顺序加入即可），此时代价为均摊O(1)。
+     * 若系统时钟被向回调整，入场时间可能早于该车牌已有的记录，此时记录被插入到按入场时间排序的位置上，而不是被拒绝。
+     *
+     * @param ordinal 记录的序号。
+     * @param plateId 车牌编号，为非负整数。
+     * @param timeIn  入场时间（毫秒）。
+     * @throws IllegalArgumentException 如果`plateId`为负数。
+     */
+    public void add(long ordinal, int plateId, long timeIn) {
+        if (plateId < 0) {
+            throw new IllegalArgumentException("Plate ids must be non-negative.");
+        }
+        Postings[] plates = byPlate;
+        if (plates.length <= plateId) {
+            plates = Arrays.copyOf(plates, Math.max(plateId + 1, plates.length * 2));
+            byPlate = plates;
+        }
+        plates[plateId] = Postings.orEmpty(plates[plateId]).insert(ordinal, timeIn);
+
+        long bucket = Math.floorDiv(timeIn, bucketMillis);
+        byTime.put(bucket, Postings.orEmpty(byTime.get(bucket)).add(ordinal, timeIn));
+        size = size + 1; // 只有写线程修改size
+    }
+
+    /**
+     * 返回某车牌在时间段[from, to)内入场的所有记录的序号，按入场时间排序。
+     *
+     * @param plateId 车牌编号。
+     * @param from    时间段的起点（毫秒，包含）。
+     * @param to      时间段的终点（毫秒，不包含）。
+     * @return 记录的序号；没有符合条件的记录时返回空数组。
+     */
+    public long[] sessionsOf(int plateId, long from, long to) {
+        if (size == 0) { // 读取size，看到此前发布的全部记录
+            return new long[0];
+        }
+        Postings[] plates = byPlate;
+        Postings postings = (plateId < 0 || plateId >= plates.length) ? null : plates[plateId];
+        if (postings == null || from >= to) {
+            return new long[0];
+        }
+        int lo = postings.lowerBound(from);
+        int hi = postings.lowerBound(to);
+        return Arrays.copyOfRange(postings.ordinals, lo, hi);
+    }
+
+    /**
+     * 返回时间段[from, to)内入场的所有记录的序号，按时间桶排序，同一桶内按加入索引的顺序排列。
+     *
+     * @param from 时间段的起点（毫秒，包含）。
+     * @param to   时间段的终点（毫秒，不包含）。
+     * @return 记录的序号；没有符合条件的记录时返回空数组。
+     */
+    public long[] sessionsBetween(long from, long to) {
+        if (size == 0 || from >= to) { // 读取size，看到此前发布的全部记录
+            return new long[0];
+        }
+        long firstBucket = Math.floorDiv(from, bucketMillis);
+        long lastBucket = Math.floorDiv(to - 1, bucketMillis);
+        long[] result = new long[16];
+        int count = 0;
+        for (Map.Entry<Long, Postings> entry : byTime.subMap(firstBucket, true, lastBucket, true).entrySet()) {
+            Postings bucket = entry.getValue();
+            boolean edge = entry.getKey() == firstBucket || entry.getKey() == lastBucket;
+            for (int i = 0; i < bucket.size; i++) {
+                // 只有首尾两个桶可能包含时间段之外的记录
+                if (!edge || (bucket.times[i] >= from && bucket.times[i] < to)) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = bucket.ordinals[i];
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return 索引中的记录总数。
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 一组记录的序号及其入场时间的不可变快照。
+     * <p>
+     * 快照只读取数组的[0, size)部分；写线程追加记录时，若数组还有空间，新快照与旧快照共享数组，
+     * 新记录写在旧快照的范围之外，因此持有旧快照的读线程不受影响。
+     */
+    private static final class Postings {
+        private static final Postings EMPTY = new Postings(new long[0], new long[0], 0);
+
+        private final long[] ordinals;
+        private final long[] times;
+        private final int size;
+
+        private Postings(long[] ordinals, long[] times, int size) {
+            this.ordinals = ordinals;
+            this.times = times;
+            this.size = size;
+        }
+
+        static Postings orEmpty(Postings postings) {
+            return (postings == null) ? EMPTY : postings;
+        }
+
+        /**
+         * 返回在末尾追加一条记录后的快照。只能对最新的快照调用。
+         */
+        Postings add(long ordinal, long time) {
+            long[] newOrdinals = ordinals;
+            long[] newTimes = times;
+            if (size == ordinals.length) {
+                newOrdinals = Arrays.copyOf(ordinals, Math.max(4, size * 2));
+                newTimes = Arrays.copyOf(times, Math.max(4, size * 2));
+            }
+            newOrdinals[size] = ordinal;
+            newTimes[size] = time;
+            return new Postings(newOrdinals, newTimes, size + 1);
+        }
+
+        /**
+         * 返回在保持times非降序的位置上插入一条记录后的快照，入场时间相同的记录按插入顺序排列。只能对最新的快照调用。
+         */
+        Postings insert(long ordinal, long time) {
+            if (size == 0 || times[size - 1] <= time) {
+                return add(ordinal, time);
+            }
+            // 插入到中间会移动已发布的记录，因此复制数组
+            int position = lowerBound(time + 1);
+            long[] newOrdinals = new long[Math.max(4, size * 2)];
+            long[] newTimes = new long[newOrdinals.length];
+            System.arraycopy(ordinals, 0, newOrdinals, 0, position);
+            System.arraycopy(times, 0, newTimes, 0, position);
+            newOrdinals[position] = ordinal;
+            newTimes[position] = time;
+            System.arraycopy(ordinals, position, newOrdinals, position + 1, size - position);
+            System.arraycopy(times, position, newTimes, position + 1, size - position);
+            return new Postings(newOrdinals, newTimes, size + 1);
+        }
+
+        /**
+         * 返回第一个入场时间不早于`time`的位置；要求times按非降序排列。
+         */
+        int lowerBound(long time) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+/**
+ * 已结束停车记录的内存存储：序号 → {@link ArchivedSession}。
+ * <p>
+ * 存储只由一个写线程追加，可以同时被任意多个读线程读取而不加锁。记录按序号分块保存，每块1024条，
+ * 追加时只在块的索引不够长时复制索引（N / 1024项），已写入的块从不移动或复制。
+ * 某条记录对读线程可见的前提是：读线程经由写线程在{@link #put(long, ArchivedSession)}之后的某次volatile写
+ * （例如{@link SessionIndex#add(long, int, long)}）得到了它的序号。
+ */
+public class SessionLog {
+    private static final int CHUNK_BITS = 10; // 每块1024条记录
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    // Rep
+    private volatile ArchivedSession[][] chunks = new ArchivedSession[0][]; // 序号i的记录为chunks[i >>> CHUNK_BITS][i & CHUNK_MASK]
+
+    /**
+     * Abstraction Function (AF):
+     * AF(l) = 一个从序号到已结束记录的部分映射，序号i映射到l.chunks[i >>> CHUNK_BITS][i & CHUNK_MASK]（为null时没有记录）。
+     * <p>
+     * Representation Invariant (RI):
+     * - l.chunks中的每一块非null，且长度为1 << CHUNK_BITS。
+     * - 每条非null的记录r位于序号r.getOrdinal()的位置上。
+     */
+
+    /**
+     * 保存一条已结束的记录，只能由写线程调用。
+     *
+     * @param ordinal 记录的序号，必须是非负整数，且不能已有记录。
+     * @param session 记录，不能为null，其序号应为`ordinal`。
+     * @throws IllegalArgumentException 如果`ordinal`为负数或与`session`的序号不同。
+     * @throws IllegalStateException    如果该序号已有记录。
+     */
+    public void put(long ordinal, ArchivedSession session) {
+        if (ordinal < 0 || ordinal != session.getOrdinal()) {
+            throw new IllegalArgumentException("Invalid session ordinal: " + ordinal);
+        }
+        ArchivedSession[][] current = chunks;
+        int chunk = (int) (ordinal >>> CHUNK_BITS);
+        if (chunk >= current.length) {
+            ArchivedSession[][] grown = Arrays.copyOf(current, Math.max(chunk + 1, current.length * 2));
+            for (int c = current.length; c < grown.length; c++) {
+                grown[c] = new ArchivedSession[CHUNK_MASK + 1];
+            }
+            // 先填好新的块再发布，读线程看到的索引中不会有null块
+            chunks = grown;
+            current = grown;
+        }
+        if (current[chunk][(int) ordinal & CHUNK_MASK] != null) {
+            throw new IllegalStateException("Session " + ordinal + " has already been stored.");
+        }
+        current[chunk][(int) ordinal & CHUNK_MASK] = session;
+    }
+
+    /**
+     * 返回指定序号的记录，可以由任意线程调用。
+     *
+     * @param ordinal 记录的序号。
+     * @return 记录；若该序号没有记录（或尚未对当前线程可见），则返回null。
+     */
+    public ArchivedSession get(long ordinal) {
+        ArchivedSession[][] current = chunks;
+        if (ordinal < 0 || (ordinal >>> CHUNK_BITS) >= current.length) {
+            return null;
+        }
+        return current[(int) (ordinal >>> CHUNK_BITS)][(int) ordinal & CHUNK_MASK];
+    }
+}
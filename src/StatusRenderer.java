@@ -0,0 +1,201 @@
+import java.io.IOException;
+
+/**
+ * 停车场状态的文本、CSV和JSON渲染。
+ * <p>
+ * 子类只需按下标提供车位的编号、宽度和车牌号，渲染时不创建中间字符串，也不使用{@link String#format}。
+ * {@link ConcreteParkingField}直接渲染自己的表示，{@link ConcurrentParkingField}渲染它发布的不可变快照，
+ * 两者的输出格式因此保持一致。
+ */
+abstract class StatusRenderer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * @return 车位数。
+     */
+    abstract int lotCount();
+
+    /**
+     * @return 被占用的车位数。
+     */
+    abstract int occupiedCount();
+
+    /**
+     * @param i 车位下标，0 <= i < lotCount()。
+     * @return 第i个车位的编号。
+     */
+    abstract int numberAt(int i);
+
+    /**
+     * @param i 车位下标，0 <= i < lotCount()。
+     * @return 第i个车位的宽度。
+     */
+    abstract int widthAt(int i);
+
+    /**
+     * @param i 车位下标，0 <= i < lotCount()。
+     * @return 停在第i个车位上的车辆的车牌号；若车位空闲，则返回null。
+     */
+    abstract String plateAt(int i);
+
+    /**
+     * 以{@link ParkingField#renderText(Appendable)}规定的文本格式写出状态。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    final void renderText(Appendable out) throws IOException {
+        out.append("The parking field has total number of lots: ");
+        appendInt(out, lotCount());
+        out.append("\n");
+        out.append("Now ");
+        if (lotCount() == 0) {
+            out.append("NaN"); // 与原先String.format("%.0f", 0.0 / 0)的输出一致
+        } else {
+            appendInt(out, occupiedPercentage());
+        }
+        out.append("% lots are occupied").append("\n");
+
+        for (int i = 0; i < lotCount(); i++) {
+            out.append("Lot ");
+            appendInt(out, numberAt(i));
+            out.append(" (");
+            appendInt(out, widthAt(i));
+            out.append("): \t");
+            String plate = plateAt(i);
+            if (plate != null) {
+                out.append("Car ").append(plate);
+            } else {
+                out.append("Free");
+            }
+            out.append("\n");
+        }
+    }
+
+    /**
+     * 以{@link ParkingField#renderCsv(Appendable)}规定的CSV格式写出状态。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    final void renderCsv(Appendable out) throws IOException {
+        out.append("number,width,plate\n");
+        for (int i = 0; i < lotCount(); i++) {
+            appendInt(out, numberAt(i));
+            out.append(',');
+            appendInt(out, widthAt(i));
+            out.append(',');
+            String plate = plateAt(i);
+            if (plate != null) {
+                appendCsvField(out, plate);
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * 以{@link ParkingField#renderJson(Appendable)}规定的JSON格式写出状态。
+     *
+     * @param out 写入目标，不能为null。
+     * @throws IOException 如果写入`out`时发生错误。
+     */
+    final void renderJson(Appendable out) throws IOException {
+        out.append("{\"total\":");
+        appendInt(out, lotCount());
+        out.append(",\"occupied\":");
+        appendInt(out, occupiedCount());
+        out.append(",\"lots\":[");
+        for (int i = 0; i < lotCount(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"number\":");
+            appendInt(out, numberAt(i));
+            out.append(",\"width\":");
+            appendInt(out, widthAt(i));
+            out.append(",\"plate\":\"");
+            String plate = plateAt(i);
+            if (plate != null) {
+                appendJsonString(out, plate);
+            }
+            out.append("\"}");
+        }
+        out.append("]}");
+    }
+
+    /**
+     * 计算当前被占用车位的百分比并四舍五入到整数，要求至少有一个车位。
+     * <p>
+     * 与原先的String.format("%.0f", (double) occupied / total * 100)一致：先按同样的顺序算出double，
+     * 再对这个double四舍五入，而不是对精确的分数取整。例如23/40得到57.49999999999999，结果为57。
+     */
+    private int occupiedPercentage() {
+        return (int) Math.round((double) occupiedCount() / lotCount() * 100);
+    }
+
+    /**
+     * 以十进制写出一个整数，不创建中间字符串。
+     */
+    private static void appendInt(Appendable out, int value) throws IOException {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                out.append("-2147483648");
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * 写出一个CSV字段；字段包含逗号、引号或换行时加引号并转义。
+     */
+    private static void appendCsvField(Appendable out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * 写出JSON字符串的内容（不含两侧引号），转义引号、反斜杠和控制字符。
+     */
+    private static void appendJsonString(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00");
+                out.append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试策略
+ * <p>
+ * 按照请求的顺序划分：
+ * 1. 同一批内先后提交的请求相互依赖：后提交的请求能看到先提交请求的结果。
+ * 2. 请求数超过`batchSize`：分多批处理，所有请求仍按提交顺序完成。
+ * <p>
+ * 按照请求的结果划分：
+ * 1. 底层停车场抛出Exception：对应的future以该异常结束。
+ * 2. 底层停车场抛出Error：对应的future以该Error结束，写线程继续处理之后的请求。
+ * <p>
+ * 按照future结束的位置划分：
+ * 1. 指定完成执行器：回调在该执行器的线程中运行，不在写线程中运行，且future按提交顺序结束。
+ * 2. 完成执行器拒绝任务：改由写线程结束future，不会永远挂起。
+ * <p>
+ * 按照关闭时机划分：
+ * 1. 关闭前已提交的请求：关闭返回时全部已完成。
+ * 2. 关闭后提交：预期抛出IllegalStateException。
+ * 3. 关闭的同时有其他线程在提交：每个future都会结束，不会永远挂起。
+ * <p>
+ * 特殊情况测试：
+ * 1. `field`为null：预期抛出NullPointerException。
+ * 2. `completionExecutor`为null：预期抛出NullPointerException。
+ * 3. `batchSize`不是正整数：预期抛出IllegalArgumentException。
+ */
+class AsyncParkingFieldTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private static Map<Integer, Integer> lots(int n) {
+        Map<Integer, Integer> lots = new HashMap<>();
+        for (int i = 1; i <= n; i++) {
+            lots.put(i, 3);
+        }
+        return lots;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static Throwable failureOf(CompletableFuture<?> future) throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    /**
+     * 测试中的停车不超过半小时；在同一毫秒内停入并驶离时不收费。
+     */
+    private static boolean isShortStayFee(double fee) {
+        return fee == 0 || fee == 10;
+    }
+
+    // 覆盖：同一批内先后提交的请求相互依赖、底层停车场抛出Exception、关闭前已提交的请求
+    @Test
+    void testRequestsAreAppliedInSubmissionOrder() throws Exception {
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(5)), 16);
+        CompletableFuture<Void> first = async.parkAsync("A1", 2, 1);
+        CompletableFuture<Void> taken = async.parkAsync("B2", 2, 1);
+        CompletableFuture<Double> departed = async.departAsync("A1");
+        CompletableFuture<Void> second = async.parkAsync("B2", 2, 1);
+        CompletableFuture<Integer> nearest = async.parkNearestAsync("C3", 2, 0, 0, 0);
+        async.close();
+
+        assertTrue(first.isDone() && taken.isDone() && departed.isDone() && second.isDone() && nearest.isDone());
+        assertNull(await(first));
+        assertTrue(failureOf(taken) instanceof IllegalStateException,
+                "Parking in a lot occupied by an earlier request should fail.");
+        assertTrue(isShortStayFee(await(departed)));
+        assertNull(await(second));
+        assertTrue(await(nearest) >= 2 && await(nearest) <= 5);
+    }
+
+    // 覆盖：请求数超过`batchSize`
+    @Test
+    void testRequestsSpanningSeveralBatches() throws Exception {
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(50)), 3);
+        List<CompletableFuture<Void>> parks = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            parks.add(async.parkAsync("CAR" + i, 2, i));
+        }
+        // 每辆车驶离前必须已经停入，否则驶离会失败
+        List<CompletableFuture<Double>> departs = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            departs.add(async.departAsync("CAR" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertNull(await(parks.get(i)));
+            assertTrue(isShortStayFee(await(departs.get(i))));
+        }
+        async.close();
+    }
+
+    // 覆盖：底层停车场抛出Error
+    @Test
+    void testErrorDoesNotStopWriter() throws Exception {
+        ConcreteParkingField field = new ConcreteParkingField(lots(5)) {
+            @Override
+            public double depart(String plate) {
+                throw new AssertionError("broken invariant");
+            }
+        };
+        AsyncParkingField async = new AsyncParkingField(field, 4);
+        CompletableFuture<Double> failed = async.departAsync("A1");
+        assertTrue(failureOf(failed) instanceof AssertionError);
+
+        CompletableFuture<Void> later = async.parkAsync("A1", 2, 1);
+        assertNull(await(later), "Requests after a failed one should still be applied.");
+        async.close();
+    }
+
+    // 覆盖：指定完成执行器
+    @Test
+    void testFuturesCompleteOnCompletionExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "completion"));
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(20)), 4, executor);
+        List<String> threads = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Void>> callbacks = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            int n = i;
+            callbacks.add(async.parkAsync("CAR" + i, 2, i).thenRun(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread().getName());
+                    order.add(n);
+                }
+            }));
+        }
+        async.close();
+        for (CompletableFuture<Void> callback : callbacks) {
+            await(callback);
+        }
+        executor.shutdown();
+
+        synchronized (threads) {
+            assertEquals(20, order.size());
+            assertFalse(threads.contains("parking-field-writer"), "Callbacks should not run on the writer thread.");
+            for (int i = 0; i < order.size(); i++) {
+                assertEquals(i + 1, (int) order.get(i), "Futures should complete in submission order.");
+            }
+        }
+    }
+
+    // 覆盖：完成执行器拒绝任务
+    @Test
+    void testRejectingExecutorFallsBackToWriter() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(5)), 4, executor);
+        CompletableFuture<Void> parked = async.parkAsync("A1", 2, 1);
+        assertNull(await(parked));
+        async.close();
+    }
+
+    // 覆盖：关闭后提交
+    @Test
+    void testSubmitAfterClose() throws Exception {
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(5)), 4);
+        async.close();
+        assertThrows(IllegalStateException.class, () -> async.parkAsync("A1", 2, 1));
+        assertThrows(IllegalStateException.class, () -> async.departAsync("A1"));
+    }
+
+    // 覆盖：关闭的同时有其他线程在提交
+    @Test
+    void testCloseWhileSubmitting() throws Exception {
+        AsyncParkingField async = new AsyncParkingField(new ConcreteParkingField(lots(50)), 2);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Thread submitter = new Thread(() -> {
+            for (int i = 1; i <= 50; i++) {
+                try {
+                    CompletableFuture<Void> future = async.parkAsync("CAR" + i, 2, i);
+                    synchronized (futures) {
+                        futures.add(future);
+                    }
+                } catch (IllegalStateException e) {
+                    return; // 已关闭
+                }
+            }
+        });
+        submitter.start();
+        async.close();
+        submitter.join();
+
+        synchronized (futures) {
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    assertNull(await(future));
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        }
+    }
+
+    // 覆盖：`field`为null、`completionExecutor`为null、`batchSize`不是正整数
+    @Test
+    void testInvalidArguments() throws Exception {
+        assertThrows(NullPointerException.class, () -> new AsyncParkingField(null, 4));
+        assertThrows(NullPointerException.class,
+                () -> new AsyncParkingField(new ConcreteParkingField(lots(5)), 4, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncParkingField(new ConcreteParkingField(lots(5)), 0));
+    }
+}
@@ -0,0 +1,279 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试策略
+ * <p>
+ * 按照查询结果与被包装停车场的一致性划分：
+ * 1. 单线程下依次停车、驶离：状态、渲染、报价、车位和历史记录与直接操作一个相同的停车场得到的结果一致。
+ * 2. 包装一个已经有在场车辆和历史记录的停车场：包装后的查询能看到这些状态。
+ * 3. 车位不按编号顺序给出：渲染的车位顺序以及历史查询的结果和顺序都与被包装的停车场相同。
+ * <p>
+ * 按照读写是否相互阻塞划分：
+ * 1. 写操作在被包装的停车场内停住（持有写锁）：所有查询仍能立即返回，且看到的是写操作之前发布的状态。
+ * <p>
+ * 按照并发程度划分：
+ * 1. 多个写线程和多个读线程同时运行：读者看到的每个快照都是自洽的（没有重复的车牌，占用数与车牌数一致），
+ *    全部写操作结束后，状态和历史记录与写操作的结果一致。
+ */
+class ConcurrentParkingFieldTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static List<Lot> lots(int n) {
+        List<Lot> lots = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            lots.add(new Lot(i, 2 + i % 2));
+        }
+        return lots;
+    }
+
+    private static Calendar at(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    private static String render(ParkingField field) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        field.renderText(sb);
+        sb.append('|');
+        field.renderCsv(sb);
+        sb.append('|');
+        field.renderJson(sb);
+        return sb.toString();
+    }
+
+    // 覆盖：单线程下依次停车、驶离
+    @Test
+    void testMatchesWrappedField() throws Exception {
+        ConcreteParkingField plain = new ConcreteParkingField(lots(8));
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(new ConcreteParkingField(lots(8)));
+        long before = System.currentTimeMillis();
+        for (ParkingField field : new ParkingField[]{plain, wrapped}) {
+            field.parking("A1", 2, 1);
+            field.parking("B2", 2, 4);
+            field.parkingNearest("C3", 2, 0, 0, 0);
+            field.depart("A1");
+            field.parking("A1", 2, 7);
+        }
+        long after = System.currentTimeMillis() + 1;
+
+        assertEquals(plain.status(), wrapped.status());
+        assertEquals(render(plain), render(wrapped));
+        assertEquals(plain.toString(), wrapped.toString());
+        assertFalse(wrapped.isEmpty());
+        assertEquals(7, wrapped.lotOf("A1"));
+        assertEquals(plain.lotOf("C3"), wrapped.lotOf("C3"));
+        assertTrue(wrapped.quoteFee("B2") == 0 || wrapped.quoteFee("B2") == 10);
+        assertThrows(IllegalStateException.class, () -> wrapped.quoteFee("NEVER"));
+        assertThrows(IllegalArgumentException.class, () -> wrapped.lotOf(""));
+
+        List<ArchivedSession> history = wrapped.history("A1", at(before), at(after));
+        assertEquals(1, history.size());
+        assertEquals(1, history.get(0).getLotNumber());
+        assertEquals(1, wrapped.sessionsBetween(at(before), at(after)).size());
+        assertTrue(wrapped.sessionsBetween(at(after), at(before)).isEmpty());
+
+        // 自动分配的车位也会被发布
+        wrapped.parking("D4", 3);
+        assertEquals("D4", wrapped.status().get(wrapped.lotOf("D4")));
+    }
+
+    // 覆盖：包装一个已经有在场车辆和历史记录的停车场
+    @Test
+    void testWrapsFieldInUse() throws Exception {
+        ConcreteParkingField field = new ConcreteParkingField(lots(5));
+        long before = System.currentTimeMillis();
+        field.parking("A1", 2, 1);
+        field.depart("A1");
+        field.parking("B2", 2, 3);
+
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(field);
+        assertEquals("B2", wrapped.status().get(3));
+        assertEquals(3, wrapped.lotOf("B2"));
+        assertEquals(1, wrapped.history("A1", at(before), at(System.currentTimeMillis() + 1)).size());
+        wrapped.depart("B2");
+        assertTrue(wrapped.isEmpty());
+        assertEquals(2, wrapped.sessionsBetween(at(before), at(System.currentTimeMillis() + 1)).size());
+    }
+
+    private static String describe(List<ArchivedSession> sessions) {
+        StringBuilder sb = new StringBuilder();
+        for (ArchivedSession session : sessions) {
+            sb.append(session.getOrdinal()).append(' ').append(session.getPlate()).append(' ')
+                    .append(session.getLotNumber()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // 覆盖：车位不按编号顺序给出
+    @Test
+    void testKeepsOrderOfWrappedField() throws Exception {
+        List<Lot> lots = List.of(new Lot(5, 2), new Lot(3, 3), new Lot(9, 2), new Lot(1, 3), new Lot(7, 2),
+                new Lot(2, 2));
+        ConcreteParkingField plain = new ConcreteParkingField(lots);
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(new ConcreteParkingField(lots));
+        long before = System.currentTimeMillis();
+        for (ParkingField field : new ParkingField[]{plain, wrapped}) {
+            field.parking("A1", 2, 9);
+            field.parking("B2", 3, 1);
+            field.parking("C3", 2, 5);
+            field.depart("C3");
+            field.depart("A1");
+            field.parking("A1", 2, 2);
+            field.depart("B2");
+        }
+        long after = System.currentTimeMillis() + 1;
+
+        assertEquals(render(plain), render(wrapped));
+        assertTrue(render(wrapped).startsWith("The parking field has total number of lots: 6\nNow 17% lots are occupied\n"
+                + "Lot 5 (2): \tFree\nLot 3 (3): \tFree\nLot 9 (2): \tFree\nLot 1 (3): \tFree\n"));
+        assertEquals(describe(plain.sessionsBetween(at(before), at(after))),
+                describe(wrapped.sessionsBetween(at(before), at(after))));
+        assertEquals(describe(plain.history("A1", at(before), at(after))),
+                describe(wrapped.history("A1", at(before), at(after))));
+        assertEquals(3, wrapped.getLotWidth(1));
+        assertTrue(wrapped.isLotInParkingField(7, 2));
+        assertFalse(wrapped.isLotInParkingField(4, 2));
+        assertEquals(2, wrapped.lotOf("A1"));
+    }
+
+    // 覆盖：写操作在被包装的停车场内停住
+    @Test
+    void testQueriesDoNotWaitForWriters() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConcreteParkingField slow = new ConcreteParkingField(lots(5)) {
+            @Override
+            public void parking(String plate, int width, int num) throws Exception {
+                super.parking(plate, width, num);
+                entered.countDown();
+                release.await();
+            }
+        };
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(slow);
+        wrapped.parkingNearest("A1", 2, 0, 0, 0);
+        long before = System.currentTimeMillis() - 1;
+        wrapped.depart("A1");
+        wrapped.parkingNearest("A1", 2, 0, 0, 0);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                wrapped.parking("B2", 2, 2);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // 写线程此时持有写锁，查询应立即返回写操作之前的状态
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> {
+            try {
+                assertEquals("", wrapped.status().get(2));
+                assertFalse(wrapped.isEmpty());
+                assertEquals(1, wrapped.history("A1", at(before), at(System.currentTimeMillis() + 1)).size());
+                assertEquals(1, wrapped.sessionsBetween(at(before), at(System.currentTimeMillis() + 1)).size());
+                wrapped.quoteFee("A1");
+                assertEquals(wrapped.lotOf("A1"), wrapped.lotOf("A1"));
+                return render(wrapped) + wrapped;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        String rendered = reader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(rendered.contains("B2"), "Readers should see the state published before the pending write.");
+
+        release.countDown();
+        writer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("B2", wrapped.status().get(2));
+    }
+
+    // 覆盖：多个写线程和多个读线程同时运行
+    @Test
+    void testConcurrentReadersAndWriters() throws Exception {
+        int writers = 4;
+        int lotsPerWriter = 16;
+        int rounds = 50;
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(new ConcreteParkingField(lots(writers * lotsPerWriter)));
+        long before = System.currentTimeMillis();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(writers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                try {
+                    // 每个写线程只使用自己的一段车位和车牌
+                    for (int round = 0; round < rounds; round++) {
+                        for (int i = 0; i < lotsPerWriter; i++) {
+                            wrapped.parking("W" + writer + "-" + i, 2, writer * lotsPerWriter + i + 1);
+                        }
+                        for (int i = 0; i < lotsPerWriter; i++) {
+                            wrapped.depart("W" + writer + "-" + i);
+                        }
+                    }
+                    for (int i = 0; i < lotsPerWriter / 2; i++) {
+                        wrapped.parking("W" + writer + "-" + i, 2, writer * lotsPerWriter + i + 1);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (int r = 0; r < 3; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (done.getCount() > 0) {
+                        Map<Integer, String> status = wrapped.status();
+                        Set<String> seen = new HashSet<>();
+                        for (String plate : status.values()) {
+                            assertTrue(plate.isEmpty() || seen.add(plate), "A car cannot occupy two lots.");
+                        }
+                        String json = wrapped.toString();
+                        assertTrue(json.startsWith("The parking field has total number of lots: 64\n"));
+                        wrapped.sessionsBetween(at(before), at(System.currentTimeMillis() + 1));
+                        wrapped.isEmpty();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 6));
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        Map<Integer, String> status = wrapped.status();
+        int occupied = 0;
+        for (String plate : status.values()) {
+            if (!plate.isEmpty()) {
+                occupied++;
+            }
+        }
+        assertEquals(writers * lotsPerWriter / 2, occupied);
+        assertEquals(writers * lotsPerWriter * rounds,
+                wrapped.sessionsBetween(at(before), at(System.currentTimeMillis() + 1)).size());
+        assertEquals(rounds, wrapped.history("W0-0", at(before), at(System.currentTimeMillis() + 1)).size());
+    }
+}
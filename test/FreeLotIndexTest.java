@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FreeLotIndex 的测试策略。
+ * <p>
+ * 按照车位宽度划分：
+ * 1. 最近的车位宽度足够：返回最近的车位。
+ * 2. 最近的车位宽度不足：跳过该车位，返回宽度足够的车位中最近的一个。
+ * 3. 没有宽度足够的车位：返回-1。
+ * <p>
+ * 按照占用情况划分：
+ * 1. 最近的车位已被占用：返回次近的空闲车位。
+ * 2. 车位被释放：重新成为候选车位。
+ * <p>
+ * 按照楼层划分：
+ * 1. 入口与车位在不同楼层：楼层差计入距离。
+ */
+class FreeLotIndexTest {
+
+    // 车位1~5沿x轴排列在0层，车位6在1层的原点
+    private List<Lot> lots() {
+        List<Lot> lots = new ArrayList<>();
+        lots.add(new Lot(1, 2, 0, 0, 0));
+        lots.add(new Lot(2, 3, 10, 0, 0));
+        lots.add(new Lot(3, 2, 20, 0, 0));
+        lots.add(new Lot(4, 4, 30, 0, 0));
+        lots.add(new Lot(5, 2, 40, 0, 0));
+        lots.add(new Lot(6, 4, 0, 0, 1));
+        return lots;
+    }
+
+    // 覆盖：最近的车位宽度足够、宽度不足、没有宽度足够的车位
+    @Test
+    void testNearestRespectsWidth() {
+        FreeLotIndex index = new FreeLotIndex(lots());
+        assertEquals(2, index.nearest(2, 21, 0, 0)); // 车位3
+        assertEquals(3, index.nearest(4, 21, 0, 0)); // 车位4
+        assertEquals(-1, index.nearest(5, 21, 0, 0));
+    }
+
+    // 覆盖：最近的车位已被占用、车位被释放
+    @Test
+    void testNearestRespectsOccupancy() {
+        FreeLotIndex index = new FreeLotIndex(lots());
+        index.occupy(2);
+        assertFalse(index.isFree(2));
+        int next = index.nearest(2, 21, 0, 0);
+        assertTrue(next == 1 || next == 3, "Should pick one of the neighbouring lots.");
+
+        index.release(2);
+        assertEquals(2, index.nearest(2, 21, 0, 0));
+    }
+
+    // 覆盖：入口与车位在不同楼层
+    @Test
+    void testNearestAcrossLevels() {
+        FreeLotIndex index = new FreeLotIndex(lots());
+        assertEquals(5, index.nearest(4, 0, 0, 1)); // 车位6
+        assertEquals(0, index.nearest(2, 0, 0, 0)); // 车位1
+    }
+}
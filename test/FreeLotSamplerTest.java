@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FreeLotSampler 以及 ConcreteParkingField 随机分配车位的测试策略。
+ * <p>
+ * 按照车位宽度划分：
+ * 1. 只有部分车位宽度足够：只抽取宽度足够的车位。
+ * 2. 没有宽度足够的空闲车位：返回-1。
+ * <p>
+ * 按照占用情况划分：
+ * 1. 部分车位被占用：不抽取被占用的车位；释放后重新成为候选。
+ * 2. 建立抽样结构时已有车位被占用：计数以FreeLotIndex中的占用情况为准。
+ * <p>
+ * 按照分布划分：
+ * 1. 多次抽样：每个候选车位被抽中的次数大致相同。
+ * <p>
+ * 按照随机数种子划分：
+ * 1. 相同的种子：两个停车场自动分配的结果完全相同。
+ * 2. 通过ConcurrentParkingField设置相同的种子：与直接设置种子的停车场分配结果完全相同。
+ */
+class FreeLotSamplerTest {
+
+    // 车位宽度依次为1, 2, 3, 1, 2, 3, ...
+    private List<Lot> lots(int n) {
+        List<Lot> lots = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lots.add(new Lot(i + 1, 1 + i % 3));
+        }
+        return lots;
+    }
+
+    // 覆盖：只有部分车位宽度足够、没有宽度足够的空闲车位、部分车位被占用
+    @Test
+    void testSampleRespectsWidthAndOccupancy() {
+        List<Lot> lots = lots(6);
+        FreeLotIndex freeLots = new FreeLotIndex(lots);
+        FreeLotSampler sampler = new FreeLotSampler(lots, freeLots);
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(2, sampler.countFree(3));
+        for (int i = 0; i < 100; i++) {
+            int lotIndex = sampler.sample(3, random);
+            assertTrue(lotIndex == 2 || lotIndex == 5, "Only lots of width 3 should be sampled.");
+        }
+
+        for (int lotIndex : new int[]{2, 5}) {
+            freeLots.occupy(lotIndex);
+            sampler.occupy(lotIndex);
+        }
+        assertEquals(0, sampler.countFree(3));
+        assertEquals(-1, sampler.sample(3, random));
+
+        freeLots.release(5);
+        sampler.release(5);
+        assertEquals(5, sampler.sample(3, random));
+    }
+
+    // 覆盖：建立抽样结构时已有车位被占用
+    @Test
+    void testInitialCountsFollowFreeLotIndex() {
+        List<Lot> lots = lots(6);
+        FreeLotIndex freeLots = new FreeLotIndex(lots);
+        freeLots.occupy(0);
+        freeLots.occupy(3);
+        FreeLotSampler sampler = new FreeLotSampler(lots, freeLots);
+        assertEquals(4, sampler.countFree(0));
+        assertEquals(4, sampler.countFree(2));
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100; i++) {
+            int lotIndex = sampler.sample(1, random);
+            assertTrue(lotIndex != 0 && lotIndex != 3, "Occupied lots should not be sampled.");
+        }
+    }
+
+    // 覆盖：多次抽样
+    @Test
+    void testSampleIsRoughlyUniform() {
+        List<Lot> lots = lots(30);
+        FreeLotSampler sampler = new FreeLotSampler(lots, new FreeLotIndex(lots));
+        SplittableRandom random = new SplittableRandom(42);
+        int[] hits = new int[30];
+        for (int i = 0; i < 20000; i++) {
+            hits[sampler.sample(2, random)]++;
+        }
+        // 宽度不小于2的车位共20个，期望每个被抽中1000次
+        for (int i = 0; i < 30; i++) {
+            if (i % 3 == 0) {
+                assertEquals(0, hits[i]);
+            } else {
+                assertTrue(hits[i] > 800 && hits[i] < 1200, "Lot " + i + " was sampled " + hits[i] + " times.");
+            }
+        }
+    }
+
+    // 覆盖：相同的种子
+    @Test
+    void testSameSeedReplaysAllocation() throws Exception {
+        Map<Integer, Integer> lotsInfo = new HashMap<>();
+        for (int i = 1; i <= 20; i++) {
+            lotsInfo.put(i, 2 + i % 2);
+        }
+        ConcreteParkingField first = new ConcreteParkingField(lotsInfo);
+        ConcreteParkingField second = new ConcreteParkingField(lotsInfo);
+        first.setRandomSeed(7);
+        second.setRandomSeed(7);
+        for (int i = 0; i < 10; i++) {
+            first.parking("CAR" + i, 2 + i % 2);
+            second.parking("CAR" + i, 2 + i % 2);
+        }
+        assertEquals(first.status(), second.status());
+    }
+
+    // 覆盖：通过ConcurrentParkingField设置相同的种子
+    @Test
+    void testSeedThroughConcurrentWrapper() throws Exception {
+        Map<Integer, Integer> lotsInfo = new HashMap<>();
+        for (int i = 1; i <= 20; i++) {
+            lotsInfo.put(i, 2 + i % 2);
+        }
+        ConcreteParkingField plain = new ConcreteParkingField(lotsInfo);
+        ConcurrentParkingField wrapped = new ConcurrentParkingField(new ConcreteParkingField(lotsInfo));
+        plain.setRandomSeed(11);
+        wrapped.setRandomSeed(11);
+        for (int i = 0; i < 10; i++) {
+            plain.parking("CAR" + i, 2 + i % 2);
+            wrapped.parking("CAR" + i, 2 + i % 2);
+        }
+        assertEquals(plain.status(), wrapped.status());
+    }
+}
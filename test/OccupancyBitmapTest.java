@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OccupancyBitmap 的测试策略。
+ * <p>
+ * 按照位的位置划分：
+ * 1. 位于字的中间。
+ * 2. 位于字的边界（第63、64位）。
+ * 3. 位于最后一个不满的字中。
+ * <p>
+ * 按照操作划分：
+ * 1. set/clear：cardinality与countOnes一致，重复set或clear不改变计数。
+ * 2. nextSet/nextClear：跨越全满或全空的字找到下一个位；不存在时返回-1，且不会越过size。
+ * <p>
+ * 特殊情况测试：
+ * 1. size为0：没有任何位，查找返回-1，访问任何位都越界。
+ */
+class OccupancyBitmapTest {
+
+    // 覆盖：字的中间、字的边界、重复set或clear
+    @Test
+    void testSetAndClear() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(130);
+        bitmap.set(5);
+        bitmap.set(63);
+        bitmap.set(64);
+        bitmap.set(64);
+        assertTrue(bitmap.get(63));
+        assertTrue(bitmap.get(64));
+        assertFalse(bitmap.get(65));
+        assertEquals(3, bitmap.cardinality());
+        assertEquals(3, bitmap.countOnes());
+
+        bitmap.clear(63);
+        bitmap.clear(63);
+        assertEquals(2, bitmap.cardinality());
+        assertEquals(2, bitmap.countOnes());
+    }
+
+    // 覆盖：跨越全空的字查找下一个为1的位，不存在时返回-1
+    @Test
+    void testNextSet() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(200);
+        bitmap.set(3);
+        bitmap.set(150);
+        assertEquals(3, bitmap.nextSet(0));
+        assertEquals(150, bitmap.nextSet(4));
+        assertEquals(-1, bitmap.nextSet(151));
+    }
+
+    // 覆盖：跨越全满的字查找下一个为0的位，最后一个不满的字中不会越过size
+    @Test
+    void testNextClear() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(70);
+        for (int i = 0; i < 70; i++) {
+            if (i != 66) {
+                bitmap.set(i);
+            }
+        }
+        assertEquals(66, bitmap.nextClear(0));
+        bitmap.set(66);
+        assertEquals(-1, bitmap.nextClear(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.set(70));
+    }
+
+    // 特殊情况测试：size为0
+    @Test
+    void testEmptyBitmap() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(0);
+        assertEquals(0, bitmap.size());
+        assertEquals(0, bitmap.countOnes());
+        assertEquals(-1, bitmap.nextSet(0));
+        assertEquals(-1, bitmap.nextClear(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.get(0));
+    }
+}
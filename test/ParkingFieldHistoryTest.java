@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试策略
+ * <p>
+ * 按照车辆的状态划分：
+ * 1. 车辆停入后驶离：驶离后车位空闲，记录出现在history和sessionsBetween的结果中，费用与depart的返回值相同。
+ * 2. 车辆仍在场：记录不出现在查询结果中。
+ * 3. 车辆未停在停车场：depart抛出IllegalStateException，停车场状态不变。
+ * <p>
+ * 按照查询的时间段划分：
+ * 1. 时间段覆盖记录的入场时间：返回该记录。
+ * 2. 时间段在记录的入场时间之前：返回空列表。
+ * <p>
+ * 按照返回值的使用划分：
+ * 1. 调用者拿到的记录是不可变的：再次查询得到的内容不变，驶离和查询都不会修改之前返回的记录。
+ * <p>
+ * 特殊情况测试：
+ * 1. 车牌从未出现过：返回空列表。
+ * 2. 参数为null：抛出NullPointerException。
+ */
+class ParkingFieldHistoryTest {
+
+    private static ConcreteParkingField field() {
+        Map<Integer, Integer> lots = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            lots.put(i, 3);
+        }
+        return new ConcreteParkingField(lots);
+    }
+
+    private static Calendar at(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    // 覆盖：停入后驶离、仍在场、时间段覆盖入场时间
+    @Test
+    void testDepartedSessionIsQueryable() throws Exception {
+        ConcreteParkingField field = field();
+        long before = System.currentTimeMillis();
+        field.parking("A1", 2, 1);
+        field.parking("B2", 2, 2);
+        double fee = field.depart("A1");
+        long after = System.currentTimeMillis() + 1;
+
+        assertEquals("", field.status().get(1));
+        assertEquals("B2", field.status().get(2));
+
+        List<ArchivedSession> history = field.history("A1", at(before), at(after));
+        assertEquals(1, history.size());
+        ArchivedSession session = history.get(0);
+        assertEquals("A1", session.getPlate());
+        assertEquals(2, session.getCarWidth());
+        assertEquals(1, session.getLotNumber());
+        assertEquals(3, session.getLotWidth());
+        assertTrue(session.getTimeIn() >= before && session.getTimeIn() <= session.getTimeOut());
+        assertEquals(fee, session.getFee());
+
+        assertTrue(field.history("B2", at(before), at(after)).isEmpty(), "Open sessions are not history yet.");
+        List<ArchivedSession> between = field.sessionsBetween(at(before), at(after));
+        assertEquals(1, between.size());
+        assertEquals("A1", between.get(0).getPlate());
+    }
+
+    // 覆盖：同一车辆多次停车、时间段在入场时间之前、车牌从未出现过
+    @Test
+    void testRepeatedSessionsOfOnePlate() throws Exception {
+        ConcreteParkingField field = field();
+        long before = System.currentTimeMillis();
+        for (int i = 1; i <= 3; i++) {
+            field.parking("A1", 2, i);
+            field.depart("A1");
+        }
+        long after = System.currentTimeMillis() + 1;
+
+        List<ArchivedSession> history = field.history("A1", at(before), at(after));
+        assertEquals(3, history.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, history.get(i).getLotNumber(), "Sessions should be ordered by entry time.");
+        }
+        assertTrue(field.history("A1", at(before - 60_000), at(before)).isEmpty());
+        assertTrue(field.history("NEVER", at(before), at(after)).isEmpty());
+        assertTrue(field.isEmpty());
+    }
+
+    // 覆盖：调用者拿到的记录是不可变的
+    @Test
+    void testReturnedSessionsAreDetached() throws Exception {
+        ConcreteParkingField field = field();
+        long before = System.currentTimeMillis();
+        field.parking("A1", 2, 1);
+        field.depart("A1");
+        ArchivedSession first = field.history("A1", at(before), at(System.currentTimeMillis() + 1)).get(0);
+        long timeOut = first.getTimeOut();
+        double fee = first.getFee();
+
+        field.parking("A1", 2, 2);
+        field.depart("A1");
+        ArchivedSession again = field.history("A1", at(before), at(first.getTimeIn() + 1)).get(0);
+        assertEquals(timeOut, first.getTimeOut());
+        assertEquals(fee, first.getFee());
+        assertEquals(1, first.getLotNumber());
+        assertEquals(first.getTimeOut(), again.getTimeOut());
+        assertEquals(first.getFee(), again.getFee());
+        assertEquals(1, again.getLotNumber());
+    }
+
+    // 覆盖：车辆未停在停车场、参数为null
+    @Test
+    void testInvalidQueries() throws Exception {
+        ConcreteParkingField field = field();
+        field.parking("A1", 2, 1);
+        assertThrows(IllegalStateException.class, () -> field.depart("B2"));
+        assertEquals("A1", field.status().get(1));
+        assertThrows(NullPointerException.class, () -> field.history(null, at(0), at(1)));
+        assertThrows(NullPointerException.class, () -> field.sessionsBetween(at(0), null));
+    }
+}
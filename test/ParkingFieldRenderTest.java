@@ -0,0 +1,156 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试策略
+ * <p>
+ * 按照文本输出划分：
+ * 1. 与改动前用String.format生成的格式逐字比较，占用比例覆盖0%、四舍五入（1/8为13%）和100%。
+ * 2. 占用比例的double值略小于.5（23/40为57.49999999999999）：与String.format一致取57%，而不是按精确分数取58%。
+ * <p>
+ * 按照车牌号中的特殊字符划分：
+ * 1. CSV：包含逗号、引号或换行的车牌加引号，引号写两次；普通车牌不加引号。
+ * 2. JSON：引号和反斜杠加反斜杠转义，控制字符写成\\u00XX。
+ * <p>
+ * 按照ByteBufferAppendable写入的字符划分：
+ * 1. ASCII、两字节、三字节字符，以及由代理对组成的四字节字符：与String.getBytes(UTF_8)一致。
+ * 2. 孤立的代理字符：写为'?'，与String.getBytes(UTF_8)一致。
+ * 3. 切换缓冲区后继续写入。
+ */
+class ParkingFieldRenderTest {
+
+    private static List<Lot> lots(int n) {
+        List<Lot> lots = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lots.add(new Lot(10 + i, 2 + i % 3));
+        }
+        return lots;
+    }
+
+    /**
+     * 改动前toString()的实现，作为文本输出的参照。
+     */
+    private static String legacyText(List<Lot> lots, Map<Integer, String> status) {
+        long occupied = status.values().stream().filter(plate -> !plate.isEmpty()).count();
+        double occupiedPercentage = ((double) occupied / lots.size()) * 100;
+        StringBuilder sb = new StringBuilder();
+        sb.append("The parking field has total number of lots: ").append(lots.size()).append("\n");
+        sb.append("Now ").append(String.format("%.0f%%", occupiedPercentage)).append(" lots are occupied").append("\n");
+        for (Lot lot : lots) {
+            sb.append("Lot ").append(lot.getNumber()).append(" (").append(lot.getWidth()).append("): \t");
+            String plate = status.get(lot.getNumber());
+            sb.append(plate.isEmpty() ? "Free" : "Car " + plate);
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    // 覆盖：与改动前的格式逐字比较
+    @Test
+    void testTextMatchesLegacyFormat() throws Exception {
+        List<Lot> lots = lots(8);
+        ConcreteParkingField field = new ConcreteParkingField(lots);
+        assertEquals(legacyText(lots, field.status()), field.toString());
+        assertTrue(field.toString().contains("Now 0% lots"));
+
+        field.parking("AB001", 2, 10);
+        StringBuilder sb = new StringBuilder();
+        field.renderText(sb);
+        assertEquals(legacyText(lots, field.status()), sb.toString());
+        assertTrue(sb.toString().contains("Now 13% lots"), "1 of 8 lots should round half up to 13%.");
+
+        for (int i = 1; i < 8; i++) {
+            field.parking("CAR" + i, 2, 10 + i);
+        }
+        assertEquals(legacyText(lots, field.status()), field.toString());
+        assertTrue(field.toString().contains("Now 100% lots"));
+    }
+
+    // 覆盖：占用比例的double值略小于.5
+    @Test
+    void testPercentageMatchesLegacyRounding() throws Exception {
+        List<Lot> lots = lots(40);
+        ConcreteParkingField field = new ConcreteParkingField(lots);
+        for (int i = 0; i < 40; i++) {
+            field.parking("CAR" + i, 2, 10 + i);
+            assertEquals(legacyText(lots, field.status()), field.toString());
+        }
+        for (int i = 39; i >= 23; i--) {
+            field.depart("CAR" + i);
+        }
+        assertTrue(field.toString().contains("Now 57% lots"), "23 of 40 lots should be 57% as String.format printed it.");
+    }
+
+    // 覆盖：CSV中的特殊字符
+    @Test
+    void testCsvEscaping() throws Exception {
+        ConcreteParkingField field = new ConcreteParkingField(lots(5));
+        field.parking("A,1", 2, 10);
+        field.parking("B\"2", 2, 11);
+        field.parking("C\n3", 2, 12);
+        field.parking("D4", 2, 13);
+        StringBuilder sb = new StringBuilder();
+        field.renderCsv(sb);
+        assertEquals("number,width,plate\n"
+                + "10,2,\"A,1\"\n"
+                + "11,3,\"B\"\"2\"\n"
+                + "12,4,\"C\n3\"\n"
+                + "13,2,D4\n"
+                + "14,3,\n", sb.toString());
+    }
+
+    // 覆盖：JSON中的特殊字符
+    @Test
+    void testJsonEscaping() throws Exception {
+        ConcreteParkingField field = new ConcreteParkingField(lots(5));
+        field.parking("A\"1", 2, 10);
+        field.parking("B\\2", 2, 11);
+        field.parking("C\t3", 2, 12);
+        StringBuilder sb = new StringBuilder();
+        field.renderJson(sb);
+        assertEquals("{\"total\":5,\"occupied\":3,\"lots\":["
+                + "{\"number\":10,\"width\":2,\"plate\":\"A\\\"1\"},"
+                + "{\"number\":11,\"width\":3,\"plate\":\"B\\\\2\"},"
+                + "{\"number\":12,\"width\":4,\"plate\":\"C\\u00093\"},"
+                + "{\"number\":13,\"width\":2,\"plate\":\"\"},"
+                + "{\"number\":14,\"width\":3,\"plate\":\"\"}]}", sb.toString());
+    }
+
+    private static byte[] written(ByteBuffer buffer) {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // 覆盖：各种长度的UTF-8字符、孤立的代理字符
+    @Test
+    void testByteBufferAppendableEncodesUtf8() {
+        String text = "A1 é 京A·12345 🚗 lone\uD800x \uDC00y";
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        new ByteBufferAppendable(buffer).append(text);
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), written(buffer));
+    }
+
+    // 覆盖：切换缓冲区后继续写入
+    @Test
+    void testByteBufferAppendableReset() throws Exception {
+        ConcreteParkingField field = new ConcreteParkingField(lots(5));
+        field.parking("粤B·8888", 2, 10);
+        ByteBuffer first = ByteBuffer.allocate(512);
+        ByteBufferAppendable out = new ByteBufferAppendable(first);
+        field.renderText(out);
+        assertArrayEquals(field.toString().getBytes(StandardCharsets.UTF_8), written(first));
+
+        ByteBuffer second = ByteBuffer.allocate(512);
+        field.renderJson(out.reset(second));
+        StringBuilder sb = new StringBuilder();
+        field.renderJson(sb);
+        assertArrayEquals(sb.toString().getBytes(StandardCharsets.UTF_8), written(second));
+    }
+}
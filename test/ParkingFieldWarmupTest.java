@@ -0,0 +1,27 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ParkingFieldWarmup 的测试策略。
+ * <p>
+ * 按照轮数划分：
+ * 1. 正整数：在每种停车场上完成预热，不抛出异常。
+ * 2. 0或负数：抛出IllegalArgumentException。
+ */
+class ParkingFieldWarmupTest {
+
+    // 覆盖：轮数为正整数
+    @Test
+    void testWarmUpRuns() {
+        ParkingFieldWarmup.warmUp(1);
+        ParkingFieldWarmup.warmUp(3);
+    }
+
+    // 覆盖：轮数为0或负数
+    @Test
+    void testInvalidRounds() {
+        assertThrows(IllegalArgumentException.class, () -> ParkingFieldWarmup.warmUp(0));
+        assertThrows(IllegalArgumentException.class, () -> ParkingFieldWarmup.warmUp(-1));
+    }
+}
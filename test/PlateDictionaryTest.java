@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PlateDictionary 的测试策略。
+ * <p>
+ * 按照车牌是否出现过划分：
+ * 1. 新车牌：分配一个新的、连续的编号。
+ * 2. 已出现的车牌：返回与第一次相同的编号，不分配新编号。
+ * <p>
+ * 按照车辆宽度划分（carOf）：
+ * 1. 与上次使用的宽度相同：复用同一个Car对象。
+ * 2. 与上次使用的宽度不同：返回新的Car对象，编号不变。
+ * <p>
+ * 特殊情况测试：
+ * 1. lookup从未出现过的车牌：返回-1，且不分配编号。
+ */
+class PlateDictionaryTest {
+
+    // 覆盖：新车牌、已出现的车牌
+    @Test
+    void testInternIsStable() {
+        PlateDictionary dictionary = new PlateDictionary();
+        int first = dictionary.intern("HA001");
+        int second = dictionary.intern("HA002");
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(first, dictionary.intern(new String("HA001")));
+        assertEquals("HA002", dictionary.plateOf(second));
+        assertEquals(2, dictionary.size());
+    }
+
+    // 覆盖：宽度相同时复用Car对象，宽度不同时编号不变
+    @Test
+    void testCarOfReusesCar() {
+        PlateDictionary dictionary = new PlateDictionary();
+        Car car = dictionary.carOf("HA001", 2);
+        assertSame(car, dictionary.carOf("HA001", 2));
+
+        Car wider = dictionary.carOf("HA001", 3);
+        assertNotSame(car, wider);
+        assertEquals(car.getId(), wider.getId());
+        assertEquals(3, wider.getWidth());
+    }
+
+    // 特殊情况测试：lookup从未出现过的车牌
+    @Test
+    void testLookupUnknownPlate() {
+        PlateDictionary dictionary = new PlateDictionary();
+        assertEquals(-1, dictionary.lookup("NONE"));
+        assertEquals(0, dictionary.size());
+    }
+}
@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Record.quoteFee 的测试策略。
+ * <p>
+ * 按照停车时长划分：
+ * 1. 时长为0：费用为0。
+ * 2. 时长不足半小时：按半小时计算。
+ * 3. 时长恰好为半小时的整数倍：不多收费。
+ * 4. 时长超过半小时的整数倍：多出的部分按半小时计算。
+ * <p>
+ * 按照报价顺序划分：
+ * 1. 在同一个计费周期内重复报价：费用不变。
+ * 2. 报价时刻早于上一次报价所在的周期：重新计算，不使用缓存。
+ */
+class RecordTest {
+
+    private static final long HALF_HOUR = 30L * 60 * 1000;
+
+    // 覆盖：时长为0、不足半小时、恰好为整数倍、超过整数倍
+    @Test
+    void testQuoteFeeRoundsUpToHalfHours() {
+        Record record = new Record(new Car("HA001", 2), new Lot(1, 2));
+        long in = record.getTimeInMillis();
+        assertEquals(0.0, record.quoteFee(in));
+        assertEquals(10.0, record.quoteFee(in + 1));
+        assertEquals(10.0, record.quoteFee(in + HALF_HOUR));
+        assertEquals(20.0, record.quoteFee(in + HALF_HOUR + 1));
+        assertEquals(60.0, record.quoteFee(in + 3 * 2 * HALF_HOUR));
+    }
+
+    // 覆盖：在同一个周期内重复报价、报价时刻早于上一次报价所在的周期
+    @Test
+    void testQuoteFeeCacheBoundaries() {
+        Record record = new Record(new Car("HA001", 2), new Lot(1, 2));
+        long in = record.getTimeInMillis();
+        assertEquals(30.0, record.quoteFee(in + 2 * HALF_HOUR + 1));
+        assertEquals(30.0, record.quoteFee(in + 3 * HALF_HOUR));
+        assertEquals(10.0, record.quoteFee(in + HALF_HOUR / 2));
+    }
+}
@@ -0,0 +1,212 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SessionArchiveWriter、SessionArchiveReader 与 SessionArchive 的测试策略。
+ * <p>
+ * 按照记录数划分：
+ * 1. 记录数不足一个块：写出后读回，各字段与写入时一致。
+ * 2. 记录数跨越多个块：读回的记录数和序号与写入时一致。
+ * <p>
+ * 按照入场时间范围划分：
+ * 1. 读取整个归档：返回所有记录。
+ * 2. 只读取部分时间范围：只返回入场时间在范围内的记录，序号仍为其在归档中的位置。
+ * <p>
+ * 按照在归档文件上的随机查询划分：
+ * 1. 按车牌查询，结果分布在多个块中：返回该车牌在时间段内的所有记录，按入场时间排序，内容与写入时一致。
+ * 2. 按时间段查询，时间段跨越块的边界：返回时间段内的所有记录。
+ * 3. 车牌从未出现过：返回空列表。
+ * <p>
+ * 特殊情况测试：
+ * 1. 输入不是归档文件：抛出IOException。
+ * 2. 块头损坏（记录数为负数、压缩后的长度为负数、解压后的长度远超压缩数据所能表示的长度）、块被截断、
+ *    块内的变长整数过长或长度超出块的范围：抛出IOException("Corrupted session archive block.")，不分配巨大的缓冲区。
+ */
+class SessionArchiveTest {
+
+    private static final int SESSIONS = SessionArchiveWriter.BLOCK_SIZE * 2 + 10;
+
+    private byte[] archive() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SessionArchiveWriter writer = new SessionArchiveWriter(bytes)) {
+            for (int i = 0; i < SESSIONS; i++) {
+                writer.write("京A" + (i % 100), 2, i % 50 + 1, 3, 1000L * i, 1000L * i + 1800_000L, 10.0 * (i % 3));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // 覆盖：记录数跨越多个块、读取整个归档
+    @Test
+    void testRoundTrip() throws IOException {
+        int n = 0;
+        try (SessionArchiveReader reader = new SessionArchiveReader(new ByteArrayInputStream(archive()))) {
+            while (reader.hasNext()) {
+                ArchivedSession session = reader.next();
+                assertEquals(n, session.getOrdinal());
+                assertEquals("京A" + (n % 100), session.getPlate());
+                assertEquals(2, session.getCarWidth());
+                assertEquals(n % 50 + 1, session.getLotNumber());
+                assertEquals(3, session.getLotWidth());
+                assertEquals(1000L * n, session.getTimeIn());
+                assertEquals(1000L * n + 1800_000L, session.getTimeOut());
+                assertEquals(10.0 * (n % 3), session.getFee());
+                n++;
+            }
+        }
+        assertEquals(SESSIONS, n);
+    }
+
+    // 覆盖：只读取部分时间范围
+    @Test
+    void testTimeRange() throws IOException {
+        long from = 1000L * (SessionArchiveWriter.BLOCK_SIZE + 5);
+        long to = from + 1000L * 3;
+        try (SessionArchiveReader reader = new SessionArchiveReader(new ByteArrayInputStream(archive()), from, to)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(reader.hasNext());
+                assertEquals(SessionArchiveWriter.BLOCK_SIZE + 5 + i, reader.next().getOrdinal());
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    // 覆盖：按车牌查询、按时间段查询、车牌从未出现过
+    @Test
+    void testRandomAccessLookup() throws IOException {
+        Path path = Files.createTempFile("sessions", ".pksa");
+        try {
+            Files.write(path, archive());
+            try (SessionArchive archive = SessionArchive.open(path)) {
+                assertEquals(SESSIONS, archive.size());
+
+                List<ArchivedSession> visits = archive.history("京A7", 0, Long.MAX_VALUE);
+                assertEquals((SESSIONS - 7 + 99) / 100, visits.size());
+                for (int i = 0; i < visits.size(); i++) {
+                    ArchivedSession session = visits.get(i);
+                    long n = 7 + 100L * i;
+                    assertEquals(n, session.getOrdinal());
+                    assertEquals("京A7", session.getPlate());
+                    assertEquals(n % 50 + 1, session.getLotNumber());
+                    assertEquals(1000L * n, session.getTimeIn());
+                    assertEquals(10.0 * (n % 3), session.getFee());
+                }
+                assertEquals(1, archive.history("京A7", 1000L * 4007, 1000L * 4008).size());
+
+                long from = 1000L * (SessionArchiveWriter.BLOCK_SIZE - 2);
+                List<ArchivedSession> between = archive.sessionsBetween(from, from + 1000L * 5);
+                assertEquals(5, between.size());
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(SessionArchiveWriter.BLOCK_SIZE - 2 + i, between.get(i).getOrdinal());
+                }
+                assertTrue(archive.history("NEVER", 0, Long.MAX_VALUE).isEmpty());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static final int COUNT_OFFSET = SessionArchiveWriter.HEADER_BYTES; // 第一个块的记录数
+    private static final int RAW_LENGTH_OFFSET = COUNT_OFFSET + Integer.BYTES + 4 * Long.BYTES;
+    private static final int COMPRESSED_LENGTH_OFFSET = RAW_LENGTH_OFFSET + Integer.BYTES;
+
+    private byte[] withInt(byte[] archive, int offset, int value) {
+        byte[] copy = archive.clone();
+        ByteBuffer.wrap(copy).putInt(offset, value);
+        return copy;
+    }
+
+    /**
+     * 以合法的块头包装一段任意的块内数据。
+     */
+    private static byte[] archiveWithColumns(int count, byte[] raw) throws IOException {
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] compressed = new byte[raw.length + 64];
+        int length = deflater.deflate(compressed);
+        deflater.end();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SessionArchiveWriter.MAGIC);
+        out.writeInt(SessionArchiveWriter.VERSION);
+        out.writeInt(count);
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeInt(raw.length);
+        out.writeInt(length);
+        out.write(compressed, 0, length);
+        return bytes.toByteArray();
+    }
+
+    private static void assertCorrupted(byte[] archive) throws IOException {
+        try (SessionArchiveReader reader = new SessionArchiveReader(new ByteArrayInputStream(archive))) {
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            });
+            assertEquals("Corrupted session archive block.", e.getCause().getMessage());
+        }
+    }
+
+    // 特殊情况测试：块头损坏、块被截断
+    @Test
+    void testCorruptedHeader() throws IOException {
+        byte[] archive = archive();
+        assertCorrupted(withInt(archive, COUNT_OFFSET, -1));
+        assertCorrupted(withInt(archive, COUNT_OFFSET, 0));
+        assertCorrupted(withInt(archive, COMPRESSED_LENGTH_OFFSET, -1));
+        assertCorrupted(withInt(archive, RAW_LENGTH_OFFSET, Integer.MAX_VALUE));
+        assertCorrupted(withInt(archive, RAW_LENGTH_OFFSET, -1));
+        assertCorrupted(Arrays.copyOf(archive, archive.length / 3));
+        assertCorrupted(Arrays.copyOf(archive, COUNT_OFFSET + 10));
+    }
+
+    // 特殊情况测试：块内的变长整数过长或长度超出块的范围
+    @Test
+    void testCorruptedColumns() throws IOException {
+        byte[] overlongVarint = new byte[32];
+        Arrays.fill(overlongVarint, 0, 11, (byte) 0xFF);
+        assertCorrupted(archiveWithColumns(1, overlongVarint));
+
+        // 字典中有一个车牌，但其长度远超块内剩余的字节数
+        byte[] hugePlate = new byte[32];
+        hugePlate[0] = 1;
+        hugePlate[1] = (byte) 0xFF;
+        hugePlate[2] = (byte) 0xFF;
+        hugePlate[3] = (byte) 0xFF;
+        hugePlate[4] = 0x07;
+        assertCorrupted(archiveWithColumns(1, hugePlate));
+
+        // 车牌下标超出字典的范围
+        byte[] badCode = new byte[32];
+        badCode[0] = 1;
+        badCode[1] = 1;
+        badCode[2] = 'A';
+        badCode[3] = 5;
+        assertCorrupted(archiveWithColumns(1, badCode));
+    }
+
+    // 特殊情况测试：输入不是归档文件
+    @Test
+    void testNotAnArchive() {
+        assertThrows(IOException.class, () -> new SessionArchiveReader(new ByteArrayInputStream(new byte[8])));
+    }
+}
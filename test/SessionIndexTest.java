@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SessionIndex 的测试策略。
+ * <p>
+ * 按车牌查询（sessionsOf）：
+ * 1. 车牌有记录，时间段覆盖部分记录：只返回入场时间在时间段内的记录，按入场时间排序。
+ * 2. 车牌从未出现过：返回空数组。
+ * <p>
+ * 按时间查询（sessionsBetween）：
+ * 1. 时间段跨越多个时间桶：返回所有桶中在时间段内的记录。
+ * 2. 时间段的端点落在桶的中间：首尾两个桶中时间段外的记录被排除。
+ * 3. 空时间段（from >= to）：返回空数组。
+ * <p>
+ * 特殊情况测试：
+ * 1. 同一车牌的记录逆序加入（时钟被向回调整）：记录被插入到按入场时间排序的位置上。
+ * 2. `plateId`为负数：抛出IllegalArgumentException。
+ */
+class SessionIndexTest {
+
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private SessionIndex index() {
+        SessionIndex index = new SessionIndex(HOUR);
+        index.add(0, 0, 0);
+        index.add(1, 1, HOUR / 2);
+        index.add(2, 0, 2 * HOUR);
+        index.add(3, 1, 2 * HOUR + HOUR / 2);
+        index.add(4, 0, 5 * HOUR);
+        return index;
+    }
+
+    // 覆盖：车牌有记录、车牌从未出现过
+    @Test
+    void testSessionsOf() {
+        SessionIndex index = index();
+        assertArrayEquals(new long[]{0, 2, 4}, index.sessionsOf(0, 0, 6 * HOUR));
+        assertArrayEquals(new long[]{2}, index.sessionsOf(0, 1, 5 * HOUR));
+        assertEquals(0, index.sessionsOf(7, 0, 6 * HOUR).length);
+    }
+
+    // 覆盖：跨越多个时间桶、端点落在桶的中间、空时间段
+    @Test
+    void testSessionsBetween() {
+        SessionIndex index = index();
+        assertEquals(5, index.sessionsBetween(0, 6 * HOUR).length);
+        assertArrayEquals(new long[]{1, 2}, index.sessionsBetween(HOUR / 4, 2 * HOUR + HOUR / 4));
+        assertEquals(0, index.sessionsBetween(HOUR, HOUR).length);
+    }
+
+    // 特殊情况测试：同一车牌的记录逆序加入
+    @Test
+    void testOutOfOrderAdd() {
+        SessionIndex index = index();
+        index.add(5, 0, HOUR);
+        index.add(6, 0, 0);
+        assertArrayEquals(new long[]{0, 6, 5, 2, 4}, index.sessionsOf(0, 0, 6 * HOUR));
+        assertArrayEquals(new long[]{5}, index.sessionsBetween(HOUR, 2 * HOUR));
+        assertEquals(7, index.size());
+    }
+
+    // 特殊情况测试：`plateId`为负数
+    @Test
+    void testNegativePlateId() {
+        SessionIndex index = index();
+        assertThrows(IllegalArgumentException.class, () -> index.add(5, -1, HOUR));
+    }
+}
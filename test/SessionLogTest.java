@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SessionLog 的测试策略。
+ * <p>
+ * 按照序号划分：
+ * 1. 序号在第一块内、跨越多块：按序号取回同一条记录。
+ * 2. 序号没有记录（空洞、超出已分配的块、负数）：返回null。
+ * <p>
+ * 特殊情况测试：
+ * 1. 同一序号保存两次：抛出IllegalStateException。
+ * 2. 序号为负数或与记录的序号不同：抛出IllegalArgumentException。
+ */
+class SessionLogTest {
+
+    private static ArchivedSession session(long ordinal) {
+        return new ArchivedSession(ordinal, "P" + ordinal, 2, 1, 3, ordinal, ordinal + 1, 10);
+    }
+
+    // 覆盖：序号在第一块内、跨越多块、序号没有记录
+    @Test
+    void testPutAndGet() {
+        SessionLog log = new SessionLog();
+        assertNull(log.get(0));
+        ArchivedSession first = session(0);
+        ArchivedSession far = session(5000);
+        log.put(0, first);
+        log.put(5000, far);
+        assertSame(first, log.get(0));
+        assertSame(far, log.get(5000));
+        assertNull(log.get(1));
+        assertNull(log.get(4999));
+        assertNull(log.get(1L << 40));
+        assertNull(log.get(-1));
+    }
+
+    // 覆盖：同一序号保存两次、序号为负数或与记录的序号不同
+    @Test
+    void testInvalidPuts() {
+        SessionLog log = new SessionLog();
+        log.put(3, session(3));
+        assertThrows(IllegalStateException.class, () -> log.put(3, session(3)));
+        assertThrows(IllegalArgumentException.class, () -> log.put(4, session(5)));
+        assertThrows(IllegalArgumentException.class, () -> log.put(-1, session(-1)));
+    }
+}